@@ -14,4 +14,5 @@ java {
 
 dependencies {
     implementation("org.eclipse.jgit", "org.eclipse.jgit", "6.3.0.202209071007-r")
+    implementation("com.google.code.gson", "gson", "2.10.1")
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+package datagen;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.process.ExecOperations;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Downloads the vanilla server of the given version and runs its data generator, which writes the reports
+ * (registries, block states) and the server data (tags) as json to the output directory.
+ * The output only depends on the version, so the task is up-to-date after the first run.
+ * <p>
+ * To build offline, {@link ExtractVanillaData#getServerJar()} can point at a local server jar of the version, which is
+ * used as is instead of downloading one.
+ */
+public abstract class ExtractVanillaData extends DefaultTask {
+
+    private static final URI VERSION_MANIFEST =
+            URI.create("https://piston-meta.mojang.com/mc/game/version_manifest_v2.json");
+
+    @Input
+    public abstract Property<String> getMinecraftVersion();
+
+    /**
+     * @return a local server jar, which replaces the download if set
+     */
+    @Optional
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getServerJar();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @Inject
+    protected abstract ExecOperations getExecOperations();
+
+    @TaskAction
+    public void extract() throws IOException, InterruptedException {
+        var version = getMinecraftVersion().get();
+        var output = getOutputDirectory().get().getAsFile().toPath();
+        var server = getServerJar().isPresent()
+                ? getServerJar().get().getAsFile().toPath()
+                : download(version);
+
+        // the bundler unpacks the actual server into the working directory before it runs the main class
+        var workingDirectory = getTemporaryDir().toPath().resolve("run");
+        Files.createDirectories(workingDirectory);
+        getExecOperations().javaexec(spec -> {
+            spec.classpath(server);
+            spec.getMainClass().set("net.minecraft.bundler.Main");
+            spec.systemProperty("bundlerMainClass", "net.minecraft.data.Main");
+            spec.args("--reports", "--server", "--output", output.toAbsolutePath().toString());
+            spec.setWorkingDir(workingDirectory.toFile());
+        });
+    }
+
+    private Path download(String version) throws IOException, InterruptedException {
+        var server = getTemporaryDir().toPath().resolve("server-%s.jar".formatted(version));
+        var client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
+        var manifest = fetchJson(client, VERSION_MANIFEST);
+        var versionUrl = manifest.getAsJsonArray("versions").asList().stream()
+                .map(JsonElement::getAsJsonObject)
+                .filter(entry -> entry.get("id").getAsString().equals(version))
+                .map(entry -> entry.get("url").getAsString())
+                .findFirst()
+                .orElseThrow(() -> new GradleException("Unknown minecraft version %s".formatted(version)));
+
+        var download = fetchJson(client, URI.create(versionUrl))
+                .getAsJsonObject("downloads")
+                .getAsJsonObject("server");
+        var uri = URI.create(download.get("url").getAsString());
+        var response = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofFile(server));
+        if (response.statusCode() != 200) {
+            // the file holds the error page
+            Files.deleteIfExists(server);
+            throw new GradleException("Failed to download %s: status %s".formatted(uri, response.statusCode()));
+        }
+        verify(server, download.get("sha1").getAsString());
+        return server;
+    }
+
+    private static JsonObject fetchJson(HttpClient client, URI uri) throws IOException, InterruptedException {
+        var response = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new GradleException("Failed to fetch %s: status %s".formatted(uri, response.statusCode()));
+        }
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    private static void verify(Path file, String sha1) throws IOException {
+        try {
+            var digest = MessageDigest.getInstance("SHA-1").digest(Files.readAllBytes(file));
+            var actual = HexFormat.of().formatHex(digest);
+            if (!actual.equals(sha1)) {
+                throw new GradleException("Checksum mismatch of %s: expected %s, got %s".formatted(file, sha1, actual));
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package datagen;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles the json extracted by {@link ExtractVanillaData} into the compact binary tables, which the server reads
+ * at startup without parsing:
+ * <ul>
+ *     <li>{@code registries.bin} the entries of all static registries by their protocol id</li>
+ *     <li>{@code block_states.bin} the state ids, default states and properties of all blocks</li>
+ *     <li>{@code tags.bin} the fully resolved tags of all static registries, as protocol ids</li>
+ * </ul>
+ * The tables are written into the package directory given by {@link GenerateDataTables#getPackageName()}, so they
+ * can be read as resources of that package.
+ */
+public abstract class GenerateDataTables extends DefaultTask {
+
+    // tag directories that don't match the path of their registry
+    private static final Map<String, String> LEGACY_TAG_DIRECTORIES = Map.of(
+            "blocks", "minecraft:block",
+            "items", "minecraft:item",
+            "fluids", "minecraft:fluid",
+            "entity_types", "minecraft:entity_type",
+            "game_events", "minecraft:game_event"
+    );
+
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract DirectoryProperty getVanillaDirectory();
+
+    @Input
+    public abstract Property<String> getPackageName();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @TaskAction
+    public void generate() throws IOException {
+        var vanilla = getVanillaDirectory().get().getAsFile().toPath();
+        var output = getOutputDirectory().get().getAsFile().toPath()
+                .resolve(getPackageName().get().replace('.', '/'));
+        Files.createDirectories(output);
+
+        var registries = readRegistries(vanilla.resolve(Path.of("reports", "registries.json")));
+        Files.write(output.resolve("registries.bin"), registriesTable(registries));
+        Files.write(output.resolve("block_states.bin"),
+                blockStatesTable(registries.get("minecraft:block"), vanilla.resolve(Path.of("reports", "blocks.json"))));
+        Files.write(output.resolve("tags.bin"),
+                tagsTable(registries, vanilla.resolve(Path.of("data", "minecraft", "tags"))));
+    }
+
+    // registry key -> entries, both ordered by protocol id
+    private static Map<String, List<String>> readRegistries(Path file) throws IOException {
+        var json = readJson(file);
+        var keys = json.keySet().stream()
+                .sorted(Comparator.comparingInt(key -> json.getAsJsonObject(key).get("protocol_id").getAsInt()))
+                .toList();
+
+        var registries = new LinkedHashMap<String, List<String>>();
+        for (var key : keys) {
+            var entries = json.getAsJsonObject(key).getAsJsonObject("entries");
+            var names = new String[entries.size()];
+            for (var entry : entries.entrySet()) {
+                var id = entry.getValue().getAsJsonObject().get("protocol_id").getAsInt();
+                if (id < 0 || id >= names.length || names[id] != null) {
+                    throw new GradleException("Registry %s has non contiguous ids at %s".formatted(key, entry.getKey()));
+                }
+                names[id] = entry.getKey();
+            }
+            registries.put(key, List.of(names));
+        }
+        return registries;
+    }
+
+    private static byte[] registriesTable(Map<String, List<String>> registries) {
+        var writer = new TableWriter();
+        writer.writeSymbols(List.copyOf(registries.keySet()));
+        var sections = writer.reserve(registries.size());
+        var positions = new int[registries.size()];
+        var index = 0;
+        for (var entries : registries.values()) {
+            positions[index++] = writer.position();
+            writer.writeSymbols(entries);
+        }
+        return writer.toByteArray(new TableWriter.Patch(sections, positions));
+    }
+
+    private static byte[] blockStatesTable(List<String> blocks, Path file) throws IOException {
+        var json = readJson(file);
+        if (!json.keySet().equals(Set.copyOf(blocks))) {
+            throw new GradleException("The block report doesn't match the block registry");
+        }
+
+        var firstStates = new int[blocks.size()];
+        var defaultStates = new int[blocks.size()];
+        var propertyOffsets = new int[blocks.size() + 1];
+        var properties = new ArrayList<Integer>();
+        var symbols = new LinkedHashMap<String, Integer>();
+        var stateCount = 0;
+
+        for (var id = 0; id < blocks.size(); id++) {
+            var block = json.getAsJsonObject(blocks.get(id));
+            var definitions = block.has("properties") ? block.getAsJsonObject("properties") : new JsonObject();
+            var states = block.getAsJsonArray("states").asList();
+
+            propertyOffsets[id] = properties.size();
+            var strides = new TreeMap<String, Integer>();
+            var stride = 1;
+            var names = new ArrayList<>(definitions.keySet());
+            // the last property varies fastest
+            for (var i = names.size() - 1; i >= 0; i--) {
+                strides.put(names.get(i), stride);
+                stride *= definitions.getAsJsonArray(names.get(i)).size();
+            }
+            for (var name : names) {
+                var values = definitions.getAsJsonArray(name).asList();
+                properties.add(symbol(symbols, name));
+                properties.add(values.size());
+                for (var value : values) properties.add(symbol(symbols, value.getAsString()));
+            }
+
+            var first = states.get(0).getAsJsonObject().get("id").getAsInt();
+            if (first != stateCount || states.size() != stride) {
+                throw new GradleException("Block %s has non contiguous state ids".formatted(blocks.get(id)));
+            }
+            firstStates[id] = first;
+            defaultStates[id] = -1;
+            for (var element : states) {
+                var state = element.getAsJsonObject();
+                var stateId = state.get("id").getAsInt();
+                // the runtime computes state ids from property values, so the layout is verified here
+                var expected = first;
+                if (state.has("properties")) {
+                    for (var property : state.getAsJsonObject("properties").entrySet()) {
+                        var values = definitions.getAsJsonArray(property.getKey()).asList();
+                        expected += values.indexOf(property.getValue()) * strides.get(property.getKey());
+                    }
+                }
+                if (stateId != expected) {
+                    throw new GradleException("State %s of block %s isn't in property order"
+                            .formatted(stateId, blocks.get(id)));
+                }
+                if (state.has("default") && state.get("default").getAsBoolean()) defaultStates[id] = stateId;
+            }
+            stateCount += states.size();
+        }
+        propertyOffsets[blocks.size()] = properties.size();
+
+        var writer = new TableWriter();
+        writer.writeInt(blocks.size());
+        writer.writeInt(stateCount);
+        writer.writeInts(firstStates);
+        writer.writeInts(defaultStates);
+        writer.writeInts(propertyOffsets);
+        writer.writeInts(properties.stream().mapToInt(Integer::intValue).toArray());
+        writer.writeSymbols(List.copyOf(symbols.keySet()));
+        return writer.toByteArray();
+    }
+
+    private static int symbol(Map<String, Integer> symbols, String value) {
+        return symbols.computeIfAbsent(value, _value -> symbols.size());
+    }
+
+    private static byte[] tagsTable(Map<String, List<String>> registries, Path directory) throws IOException {
+        // registry key -> tag name -> raw values
+        var tags = new TreeMap<String, Map<String, List<String>>>();
+        try (var files = Files.walk(directory)) {
+            for (var file : files.filter(path -> path.toString().endsWith(".json")).toList()) {
+                var relative = directory.relativize(file).toString().replace('\\', '/');
+                var separator = relative.indexOf('/');
+                var tagDirectory = relative.substring(0, separator);
+                var registry = LEGACY_TAG_DIRECTORIES.getOrDefault(tagDirectory, "minecraft:" + tagDirectory);
+                var path = relative.substring(separator + 1, relative.length() - ".json".length());
+                // nested registries like worldgen/biome can't be told apart from nested tag names
+                if (!registries.containsKey(registry)) continue;
+
+                var values = readJson(file).getAsJsonArray("values").asList().stream()
+                        .map(GenerateDataTables::tagValue)
+                        .toList();
+                tags.computeIfAbsent(registry, _registry -> new TreeMap<>()).put("minecraft:" + path, values);
+            }
+        }
+
+        var writer = new TableWriter();
+        writer.writeSymbols(List.copyOf(tags.keySet()));
+        var sections = writer.reserve(tags.size());
+        var positions = new int[tags.size()];
+        var index = 0;
+        for (var registry : tags.entrySet()) {
+            positions[index++] = writer.position();
+            var entries = registries.get(registry.getKey());
+            var ids = new HashMap<String, Integer>();
+            for (var id = 0; id < entries.size(); id++) ids.put(entries.get(id), id);
+
+            var names = List.copyOf(registry.getValue().keySet());
+            var offsets = new int[names.size() + 1];
+            var resolved = new ArrayList<Integer>();
+            for (var i = 0; i < names.size(); i++) {
+                for (var entry : resolve(registry.getValue(), names.get(i), new LinkedHashSet<>(), new ArrayList<>())) {
+                    var id = ids.get(entry);
+                    if (id == null) {
+                        throw new GradleException("Tag %s of %s contains unknown entry %s"
+                                .formatted(names.get(i), registry.getKey(), entry));
+                    }
+                    resolved.add(id);
+                }
+                offsets[i + 1] = resolved.size();
+            }
+
+            writer.writeSymbols(names);
+            writer.writeInts(offsets);
+            writer.writeInts(resolved.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return writer.toByteArray(new TableWriter.Patch(sections, positions));
+    }
+
+    private static String tagValue(JsonElement element) {
+        // optional entries are written as objects
+        return element.isJsonObject() ? element.getAsJsonObject().get("id").getAsString() : element.getAsString();
+    }
+
+    private static Set<String> resolve(Map<String, List<String>> tags, String name, Set<String> entries,
+                                       List<String> path) {
+        if (path.contains(name)) {
+            throw new GradleException("Cyclic tag reference %s".formatted(
+                    path.stream().collect(Collectors.joining(" -> ", "", " -> " + name))));
+        }
+        var values = tags.get(name);
+        if (values == null) throw new GradleException("Unknown tag %s".formatted(name));
+
+        path.add(name);
+        for (var value : values) {
+            if (value.startsWith("#")) {
+                resolve(tags, value.substring(1), entries, path);
+            } else {
+                entries.add(value);
+            }
+        }
+        path.remove(path.size() - 1);
+        return entries;
+    }
+
+    private static JsonObject readJson(Path file) throws IOException {
+        try (var reader = Files.newBufferedReader(file)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package datagen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes the big endian binary table format read by {@code io.github.madethoughts.hope.data} at runtime.
+ * Keep both sides in sync, the format version is checked when the tables are loaded.
+ * <p>
+ * A symbol table maps names to their index and back without decoding all names:
+ * <pre>
+ * int count, int capacity
+ * int[count + 1] offsets of the names in the blob, the last one being the blob's length
+ * int[capacity] open addressing slots holding index + 1 or 0, probed linearly from spread(name.hashCode())
+ * byte[] blob of the UTF-8 names, padded to a multiple of four bytes
+ * </pre>
+ */
+final class TableWriter {
+    static final int MAGIC = 0x484F5045; // "HOPE"
+    static final int VERSION = 1;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    TableWriter() {
+        writeInt(MAGIC);
+        writeInt(VERSION);
+    }
+
+    int position() {
+        return bytes.size();
+    }
+
+    void writeInt(int value) {
+        try {
+            out.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void writeInts(int[] values) {
+        for (var value : values) writeInt(value);
+    }
+
+    void writeBytes(byte[] value) {
+        bytes.writeBytes(value);
+    }
+
+    /**
+     * Writes a placeholder table of ints, which is filled in by a {@link Patch} once its values are known.
+     *
+     * @param length the length of the table
+     * @return the position of the table
+     */
+    int reserve(int length) {
+        var position = position();
+        writeInts(new int[length]);
+        return position;
+    }
+
+    void writeSymbols(List<String> names) {
+        var encoded = new byte[names.size()][];
+        var offsets = new int[names.size() + 1];
+        for (var i = 0; i < names.size(); i++) {
+            encoded[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+            offsets[i + 1] = offsets[i] + encoded[i].length;
+        }
+
+        var capacity = Integer.highestOneBit(Math.max(names.size(), 1) * 2 - 1) << 1;
+        var slots = new int[capacity];
+        for (var i = 0; i < names.size(); i++) {
+            var slot = spread(names.get(i).hashCode()) & (capacity - 1);
+            while (slots[slot] != 0) slot = (slot + 1) & (capacity - 1);
+            slots[slot] = i + 1;
+        }
+
+        writeInt(names.size());
+        writeInt(capacity);
+        writeInts(offsets);
+        writeInts(slots);
+        for (var name : encoded) writeBytes(name);
+        // keeps the following ints aligned
+        while (position() % Integer.BYTES != 0) bytes.write(0);
+    }
+
+    /**
+     * @param patches the values of the reserved tables
+     * @return the written table with the reserved tables filled in
+     */
+    byte[] toByteArray(Patch... patches) {
+        var result = bytes.toByteArray();
+        for (var patch : patches) {
+            for (var i = 0; i < patch.values().length; i++) {
+                var value = patch.values()[i];
+                var offset = patch.position() + i * Integer.BYTES;
+                result[offset] = (byte) (value >>> 24);
+                result[offset + 1] = (byte) (value >>> 16);
+                result[offset + 2] = (byte) (value >>> 8);
+                result[offset + 3] = (byte) value;
+            }
+        }
+        return result;
+    }
+
+    static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    record Patch(int position, int[] values) {}
+}
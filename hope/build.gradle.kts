@@ -14,6 +14,7 @@ dependencies {
     annotationProcessor(project(":processor"))
 
     implementation(project(":processor"))
+    implementation(project(":nbt"))
     implementation("org.tomlj", "tomlj", "1.1.0")
     implementation("org.slf4j", "slf4j-api", "2.0.7")
     implementation("com.google.code.gson:gson:2.10.1")
@@ -42,7 +43,35 @@ val ENABLE_PREVIEW = listOf(
 application {
     mainModule.set("io.github.madethoughts.hope")
     mainClass.set("io.github.madethoughts.hope.Application")
-    applicationDefaultJvmArgs = ENABLE_PREVIEW
+    // madvise is called through the foreign linker
+    applicationDefaultJvmArgs = ENABLE_PREVIEW + "--enable-native-access=io.github.madethoughts.hope"
+}
+
+// keep in sync with VersionedConstants
+val vanillaVersion = "1.20.4"
+
+// offline builds can pass -PvanillaServerJar=<server jar> or -PvanillaData=<already extracted data directory>
+val vanillaServerJar = providers.gradleProperty("vanillaServerJar")
+val vanillaData = providers.gradleProperty("vanillaData")
+
+val extractVanillaData by tasks.registering(datagen.ExtractVanillaData::class) {
+    minecraftVersion.set(vanillaVersion)
+    serverJar.fileProvider(vanillaServerJar.map { rootProject.file(it) })
+    outputDirectory.set(layout.buildDirectory.dir("vanilla/$vanillaVersion"))
+}
+
+// compiles the vanilla data into binary tables, which are read at runtime without parsing
+val generateDataTables by tasks.registering(datagen.GenerateDataTables::class) {
+    vanillaDirectory.set(layout.dir(vanillaData.map { rootProject.file(it) })
+        .orElse(extractVanillaData.flatMap { it.outputDirectory }))
+    packageName.set("io.github.madethoughts.hope.data")
+    outputDirectory.set(layout.buildDirectory.dir("generated/resources/dataTables"))
+}
+
+sourceSets {
+    main {
+        resources.srcDir(generateDataTables)
+    }
 }
 
 tasks {
@@ -18,18 +18,15 @@
 
 package io.github.madethoughts.hope;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.ReflectionAccessFilter;
+import io.github.madethoughts.hope.configuration.ConfigWatcher;
 import io.github.madethoughts.hope.configuration.ServerConfig;
 import io.github.madethoughts.hope.configuration.ServerConfig$Implementation;
-import io.github.madethoughts.hope.json.deserializers.PlayerProfileDeserializer;
-import io.github.madethoughts.hope.json.serializers.ComponentGsonTypeAdapter;
-import io.github.madethoughts.hope.json.serializers.StatusResponseSerializer;
+import io.github.madethoughts.hope.configuration.processor.ConfigValidationException;
+import io.github.madethoughts.hope.data.BlockStates;
+import io.github.madethoughts.hope.json.serializers.ComponentJsonCache;
 import io.github.madethoughts.hope.network.Gatekeeper;
-import io.github.madethoughts.hope.network.packets.clientbound.status.StatusResponse;
-import io.github.madethoughts.hope.profile.PlayerProfile;
-import net.kyori.adventure.text.Component;
+import io.github.madethoughts.hope.network.handler.ConfigurationHandler;
+import io.github.madethoughts.hope.network.handler.HandshakeHandler;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import org.slf4j.Logger;
@@ -45,33 +42,18 @@ public final class Server implements AutoCloseable, Runnable {
 
     public static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
     public static final GsonComponentSerializer GSON_COMPONENT_SERIALIZER = GsonComponentSerializer.gson();
-
-    public static final Gson GSON = new GsonBuilder()
-            .addReflectionAccessFilter(ReflectionAccessFilter.BLOCK_ALL_PLATFORM)
-            // -- serializer --
-            .registerTypeHierarchyAdapter(Component.class, new ComponentGsonTypeAdapter())
-            // register status response serializers
-            .registerTypeAdapter(
-                    StatusResponseSerializer.VersionSerializer.class,
-                    new StatusResponseSerializer.VersionSerializer()
-            )
-            .registerTypeAdapter(
-                    StatusResponseSerializer.PlayersSerializer.class,
-                    new StatusResponseSerializer.PlayersSerializer()
-            )
-            .registerTypeAdapter(StatusResponse.class, new StatusResponseSerializer())
-
-            // -- deserializer --
-            .registerTypeAdapter(PlayerProfile.class, new PlayerProfileDeserializer())
-            .create();
+    public static final ComponentJsonCache COMPONENT_JSON_CACHE =
+            new ComponentJsonCache(GSON_COMPONENT_SERIALIZER, 256);
     private static final Logger log = LoggerFactory.getLogger(Server.class);
 
     private final ServerConfig config;
     private final Gatekeeper gatekeeper;
+    private final ConfigWatcher configWatcher;
 
-    public Server(ServerConfig config, Gatekeeper gatekeeper) {
+    public Server(ServerConfig config, Gatekeeper gatekeeper, ConfigWatcher configWatcher) {
         this.config = config;
         this.gatekeeper = gatekeeper;
+        this.configWatcher = configWatcher;
     }
 
     /**
@@ -95,7 +77,13 @@ public final class Server implements AutoCloseable, Runnable {
         }
 
         // create server config
-        serverConfig.load(configParsingResult);
+        try {
+            serverConfig.load(configParsingResult);
+        } catch (ConfigValidationException e) {
+            log.error("The config.toml contains invalid values:");
+            e.errors().forEach(error -> log.error(" - {}", error));
+            return null;
+        }
         switch (serverConfig.checkVersion()) {
             case OUTDATED -> {
                 log.error("The config.toml is outdated! Please update the config and increment the version!");
@@ -108,8 +96,18 @@ public final class Server implements AutoCloseable, Runnable {
             case UP_TO_DATE -> {}
         }
 
+        // precompute constant messages
+        COMPONENT_JSON_CACHE.pin("login_kick", HandshakeHandler.LOGIN_KICK_MESSAGE);
+        COMPONENT_JSON_CACHE.pin("motd", serverConfig.motd());
+        // every reload creates new components, which are looked up by identity, so the motd is pinned again each time
+        serverConfig.addListener(_ -> COMPONENT_JSON_CACHE.pin("motd", serverConfig.motd()));
+        log.debug("Serialized {} bytes of configuration packets", ConfigurationHandler.CONFIGURATION.frames().length);
+        log.debug("Loaded {} block states", BlockStates.VANILLA.stateCount());
+
         var gatekeeper = Gatekeeper.open(serverConfig);
-        return new Server(serverConfig, gatekeeper);
+        // reload the config on changes, without restarting
+        var configWatcher = ConfigWatcher.start(configPath, serverConfig);
+        return new Server(serverConfig, gatekeeper, configWatcher);
     }
 
     @Override
@@ -129,6 +127,7 @@ public final class Server implements AutoCloseable, Runnable {
     @Override
     public void close() {
         try {
+            configWatcher.close();
             gatekeeper.close();
         } catch (Exception e) {
             log.error("Unexpected exception while shutting down server, potentially resulting in data loss.");
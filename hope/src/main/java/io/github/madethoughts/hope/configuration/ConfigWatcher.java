@@ -0,0 +1,131 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.configuration;
+
+import io.github.madethoughts.hope.configuration.processor.AbstractConfig;
+import io.github.madethoughts.hope.configuration.processor.ConfigValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tomlj.Toml;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchService;
+
+/**
+ * Watches a config file for modifications and reloads the config off-thread, see
+ * {@link AbstractConfig#reload(org.tomlj.TomlTable)}. Invalid configs are logged and ignored, so the server keeps
+ * running with the previous values.
+ */
+public final class ConfigWatcher implements AutoCloseable, Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigWatcher.class);
+
+    // editors often write files in multiple steps, wait for them to finish
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final Path path;
+    private final AbstractConfig config;
+    private final WatchService watchService;
+
+    private ConfigWatcher(Path path, AbstractConfig config, WatchService watchService) {
+        this.path = path;
+        this.config = config;
+        this.watchService = watchService;
+    }
+
+    /**
+     * Starts watching the given config file in a new virtual thread.
+     *
+     * @param path   the config file
+     * @param config the config to be reloaded
+     * @return the started watcher
+     * @throws IOException any I/O Exception thrown while registering the watch service
+     */
+    public static ConfigWatcher start(Path path, AbstractConfig config) throws IOException {
+        var absolutePath = path.toAbsolutePath();
+        var watchService = FileSystems.getDefault().newWatchService();
+        absolutePath.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY
+        );
+
+        var watcher = new ConfigWatcher(absolutePath, config, watchService);
+        Thread.ofVirtual()
+              .name("Config watcher for %s".formatted(path))
+              .start(watcher);
+        return watcher;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                var key = watchService.take();
+                var modified = key.pollEvents()
+                                  .stream()
+                                  .anyMatch(event -> path.getFileName().equals(event.context()));
+                key.reset();
+                if (!modified) continue;
+
+                Thread.sleep(DEBOUNCE_MILLIS);
+                // drop events caused by the same write
+                var pending = watchService.poll();
+                if (pending != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    private void reload() {
+        try {
+            var parseResult = Toml.parse(path);
+            if (parseResult.hasErrors()) {
+                log.error("Reloading of {} failed, due to: {}", path.getFileName(), parseResult.errors());
+                return;
+            }
+
+            var changed = config.reload(parseResult);
+            log.info("Reloaded {}, changed values: {}", path.getFileName(), changed);
+        } catch (ConfigValidationException e) {
+            log.error("Reloading of {} failed, it contains invalid values:", path.getFileName());
+            e.errors().forEach(error -> log.error(" - {}", error));
+        } catch (Exception e) {
+            log.error("Unexpected exception while reloading {}", path.getFileName(), e);
+        }
+    }
+
+    /**
+     * Stops watching the config file.
+     *
+     * @throws IOException see {@link WatchService#close()}
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.configuration;
+
+/**
+ * Limits applied to players joining the server, see {@link io.github.madethoughts.hope.network.LoginQueue}.
+ */
+public interface JoinConfig {
+    /**
+     * @return the maximum amount of logins admitted per second
+     */
+    int loginsPerSecond();
+
+    /**
+     * @return the maximum amount of joins being processed at the same time
+     */
+    int maxInFlight();
+
+    /**
+     * @return the interval in seconds in which queued players are sent their queue position
+     */
+    int keepAliveInterval();
+
+    /**
+     * @return the time in seconds a player has to complete the authentication, before the join fails
+     */
+    int timeout();
+}
@@ -53,4 +53,6 @@ public abstract class ServerConfig implements AbstractConfig {
     public abstract Component motd();
 
     public abstract NetworkingConfig networking();
+
+    public abstract JoinConfig join();
 }
@@ -0,0 +1,175 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.data;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The block states of vanilla. The states of a block have consecutive ids, ordered by the values of the block's
+ * properties with the last property varying fastest, so state ids are computed instead of looked up.
+ */
+public final class BlockStates {
+    public static final BlockStates VANILLA =
+            new BlockStates(DataTables.load("block_states.bin"), Registries.VANILLA.registry("minecraft:block"));
+
+    private final ByteBuffer table;
+    private final SymbolTable blocks;
+    private final int stateCount;
+    private final int[] firstStates;
+    private final int defaultStates;
+    private final int propertyOffsets;
+    private final int properties;
+    private final SymbolTable symbols;
+
+    private BlockStates(ByteBuffer table, SymbolTable blocks) {
+        this.table = table;
+        this.blocks = blocks;
+        var blockCount = table.getInt(DataTables.HEADER_SIZE);
+        stateCount = table.getInt(DataTables.HEADER_SIZE + Integer.BYTES);
+        // copied, since every state lookup binary searches it
+        firstStates = new int[blockCount];
+        table.slice(DataTables.HEADER_SIZE + 2 * Integer.BYTES, blockCount * Integer.BYTES).asIntBuffer()
+                .get(firstStates);
+        defaultStates = DataTables.HEADER_SIZE + (2 + blockCount) * Integer.BYTES;
+        propertyOffsets = defaultStates + blockCount * Integer.BYTES;
+        properties = propertyOffsets + (blockCount + 1) * Integer.BYTES;
+        symbols = new SymbolTable(table, properties + propertyInt(blockCount) * Integer.BYTES);
+    }
+
+    /**
+     * A property of a block, like the facing of stairs.
+     *
+     * @param name   the name of the property
+     * @param values the possible values in state id order
+     */
+    public record Property(String name, List<String> values) {}
+
+    /**
+     * @return the names of all blocks by their id
+     */
+    public SymbolTable blocks() {
+        return blocks;
+    }
+
+    /**
+     * @return the amount of states of all blocks
+     */
+    public int stateCount() {
+        return stateCount;
+    }
+
+    /**
+     * @param state the state id
+     * @return the id of the block the state belongs to
+     */
+    public int block(int state) {
+        if (state < 0 || state >= stateCount) throw new IndexOutOfBoundsException(state);
+        var index = Arrays.binarySearch(firstStates, state);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * @param block the block id
+     * @return the id of the block's default state
+     */
+    public int defaultState(int block) {
+        return table.getInt(defaultStates + checkBlock(block) * Integer.BYTES);
+    }
+
+    /**
+     * @param block the block id
+     * @return the properties of the block
+     */
+    public List<Property> properties(int block) {
+        var result = new ArrayList<Property>();
+        var end = propertyInt(checkBlock(block) + 1);
+        for (var i = propertyInt(block); i < end; ) {
+            var name = symbols.name(property(i++));
+            var values = new String[property(i++)];
+            for (var j = 0; j < values.length; j++) values[j] = symbols.name(property(i++));
+            result.add(new Property(name, List.of(values)));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the state of a block with the given property values. Properties that aren't given keep the value of
+     * the block's default state.
+     *
+     * @param block  the block id
+     * @param values the values by property name
+     * @return the state id
+     * @throws IllegalArgumentException if the block doesn't have one of the properties or values
+     */
+    public int state(int block, Map<String, String> values) {
+        var first = firstStates[checkBlock(block)];
+        var defaultOffset = defaultState(block) - first;
+        var end = propertyInt(block + 1);
+        var state = first;
+        var matched = 0;
+        var stride = (block + 1 < firstStates.length ? firstStates[block + 1] : stateCount) - first;
+
+        for (var i = propertyInt(block); i < end; ) {
+            var name = symbols.name(property(i++));
+            var count = property(i++);
+            stride /= count;
+            var index = defaultOffset / stride % count;
+            var value = values.get(name);
+            if (value != null) {
+                matched++;
+                index = indexOf(value, i, count);
+                if (index < 0) {
+                    throw new IllegalArgumentException("Invalid value %s of property %s".formatted(value, name));
+                }
+            }
+            state += index * stride;
+            i += count;
+        }
+        if (matched != values.size()) {
+            throw new IllegalArgumentException("Block %s doesn't have all of %s".formatted(blocks.name(block),
+                    values.keySet()));
+        }
+        return state;
+    }
+
+    private int indexOf(String value, int valuesStart, int count) {
+        var symbol = symbols.id(value);
+        for (var i = 0; i < count; i++) {
+            if (property(valuesStart + i) == symbol) return i;
+        }
+        return -1;
+    }
+
+    private int checkBlock(int block) {
+        if (block < 0 || block >= firstStates.length) throw new IndexOutOfBoundsException(block);
+        return block;
+    }
+
+    private int propertyInt(int block) {
+        return table.getInt(propertyOffsets + block * Integer.BYTES);
+    }
+
+    private int property(int index) {
+        return table.getInt(properties + index * Integer.BYTES);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Loads the binary tables generated from the vanilla data at build time. A table is read with a single bulk read
+ * into a buffer and accessed in place, nothing is parsed or decoded up front.
+ */
+final class DataTables {
+    // keep in sync with the build's table writer
+    private static final int MAGIC = 0x484F5045; // "HOPE"
+    private static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private DataTables() {}
+
+    /**
+     * @param name the file name of the table
+     * @return the read-only table, positioned after its header
+     */
+    static ByteBuffer load(String name) {
+        try (var stream = DataTables.class.getResourceAsStream(name)) {
+            if (stream == null) throw new IllegalStateException("Missing data table %s".formatted(name));
+            var table = ByteBuffer.wrap(stream.readAllBytes()).asReadOnlyBuffer();
+            if (table.getInt(0) != MAGIC || table.getInt(Integer.BYTES) != VERSION) {
+                throw new IllegalStateException("Data table %s has an unsupported format".formatted(name));
+            }
+            return table.position(HEADER_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read data table %s".formatted(name), e);
+        }
+    }
+}
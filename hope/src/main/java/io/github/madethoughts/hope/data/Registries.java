@@ -0,0 +1,59 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.data;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The static registries of vanilla, like blocks, items and entity types, with their entries by protocol id.
+ * Registries synchronized through the registry data packet are in {@link io.github.madethoughts.hope.registry}.
+ */
+public final class Registries {
+    public static final Registries VANILLA = new Registries(DataTables.load("registries.bin"));
+
+    private final SymbolTable keys;
+    private final SymbolTable[] registries;
+
+    private Registries(ByteBuffer table) {
+        keys = new SymbolTable(table, DataTables.HEADER_SIZE);
+        var positions = DataTables.HEADER_SIZE + keys.byteSize();
+        registries = new SymbolTable[keys.size()];
+        for (var i = 0; i < registries.length; i++) {
+            registries[i] = new SymbolTable(table, table.getInt(positions + i * Integer.BYTES));
+        }
+    }
+
+    /**
+     * @return the keys of all registries, like "minecraft:block", by their protocol id
+     */
+    public SymbolTable keys() {
+        return keys;
+    }
+
+    /**
+     * @param key the key of the registry, e.g. "minecraft:item"
+     * @return the entries of the registry by their protocol id
+     * @throws IllegalArgumentException if there is no such registry
+     */
+    public SymbolTable registry(String key) {
+        var id = keys.id(key);
+        if (id < 0) throw new IllegalArgumentException("Unknown registry %s".formatted(key));
+        return registries[id];
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A table of names, which are identified by their index, e.g. the entries of a registry by their protocol id.
+ * Lookups in both directions work directly on the table's bytes: only the requested name is decoded, and names are
+ * found through a precomputed hash index.
+ */
+public final class SymbolTable {
+    private final ByteBuffer table;
+    private final int size;
+    private final int capacity;
+    private final int offsets;
+    private final int slots;
+    private final int blob;
+    private final int byteSize;
+
+    /**
+     * @param table    the table containing the symbols
+     * @param position the absolute position of the symbols
+     */
+    SymbolTable(ByteBuffer table, int position) {
+        this.table = table;
+        size = table.getInt(position);
+        capacity = table.getInt(position + Integer.BYTES);
+        offsets = position + 2 * Integer.BYTES;
+        slots = offsets + (size + 1) * Integer.BYTES;
+        blob = slots + capacity * Integer.BYTES;
+        // the blob is padded to keep the following ints aligned
+        byteSize = blob + ((table.getInt(offsets + size * Integer.BYTES) + 3) & ~3) - position;
+    }
+
+    /**
+     * @return the amount of names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param id the index of the name
+     * @return the name
+     * @throws IndexOutOfBoundsException if there is no name with that index
+     */
+    public String name(int id) {
+        var start = offset(id);
+        var bytes = new byte[offset(id + 1) - start];
+        table.get(blob + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param name the name
+     * @return the index of the name, or -1 if there is no such name
+     */
+    public int id(String name) {
+        var encoded = name.getBytes(StandardCharsets.UTF_8);
+        var hash = name.hashCode();
+        var mask = capacity - 1;
+        for (var slot = (hash ^ (hash >>> 16)) & mask; ; slot = (slot + 1) & mask) {
+            var id = table.getInt(slots + slot * Integer.BYTES) - 1;
+            if (id < 0) return -1;
+            if (matches(id, encoded)) return id;
+        }
+    }
+
+    private boolean matches(int id, byte[] encoded) {
+        var start = offset(id);
+        if (offset(id + 1) - start != encoded.length) return false;
+        return table.slice(blob + start, encoded.length).equals(ByteBuffer.wrap(encoded));
+    }
+
+    private int offset(int id) {
+        if (id < 0 || id > size) throw new IndexOutOfBoundsException(id);
+        return table.getInt(offsets + id * Integer.BYTES);
+    }
+
+    /**
+     * @return the size of the symbols in the table, in bytes
+     */
+    int byteSize() {
+        return byteSize;
+    }
+}
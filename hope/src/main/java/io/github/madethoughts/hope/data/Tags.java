@@ -0,0 +1,96 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.data;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The tags of vanilla's static registries. Tags referencing other tags are resolved at build time, so each tag
+ * directly holds the protocol ids of its entries.
+ */
+public final class Tags {
+    public static final Tags VANILLA = new Tags(DataTables.load("tags.bin"));
+
+    private final ByteBuffer table;
+    private final SymbolTable registries;
+    private final SymbolTable[] names;
+    private final int[] offsets;
+
+    private Tags(ByteBuffer table) {
+        this.table = table;
+        registries = new SymbolTable(table, DataTables.HEADER_SIZE);
+        var positions = DataTables.HEADER_SIZE + registries.byteSize();
+        names = new SymbolTable[registries.size()];
+        offsets = new int[registries.size()];
+        for (var i = 0; i < names.length; i++) {
+            var position = table.getInt(positions + i * Integer.BYTES);
+            names[i] = new SymbolTable(table, position);
+            offsets[i] = position + names[i].byteSize();
+        }
+    }
+
+    /**
+     * @return the keys of all registries that have tags
+     */
+    public SymbolTable registries() {
+        return registries;
+    }
+
+    /**
+     * @param registry the key of the registry, e.g. "minecraft:block"
+     * @return the names of the registry's tags
+     * @throws IllegalArgumentException if the registry has no tags
+     */
+    public SymbolTable tags(String registry) {
+        return names[registryId(registry)];
+    }
+
+    /**
+     * @param registry the key of the registry, e.g. "minecraft:block"
+     * @param tag      the tag's name, e.g. "minecraft:logs"
+     * @return the protocol ids of the tag's entries
+     * @throws IllegalArgumentException if there is no such tag
+     */
+    public int[] entries(String registry, String tag) {
+        var id = registryId(registry);
+        var index = names[id].id(tag);
+        if (index < 0) throw new IllegalArgumentException("Unknown tag %s of %s".formatted(tag, registry));
+        return entries(id, index);
+    }
+
+    /**
+     * @param registry the index of the registry in {@link Tags#registries()}
+     * @param tag      the index of the tag in {@link Tags#tags(String)}
+     * @return the protocol ids of the tag's entries
+     */
+    public int[] entries(int registry, int tag) {
+        var offsets = this.offsets[registry];
+        var start = table.getInt(offsets + tag * Integer.BYTES);
+        var entries = new int[table.getInt(offsets + (tag + 1) * Integer.BYTES) - start];
+        var base = offsets + (names[registry].size() + 1 + start) * Integer.BYTES;
+        table.slice(base, entries.length * Integer.BYTES).asIntBuffer().get(entries);
+        return entries;
+    }
+
+    private int registryId(String registry) {
+        var id = registries.id(registry);
+        if (id < 0) throw new IllegalArgumentException("Registry %s has no tags".formatted(registry));
+        return id;
+    }
+}
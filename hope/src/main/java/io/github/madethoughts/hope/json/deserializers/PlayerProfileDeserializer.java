@@ -18,40 +18,60 @@
 
 package io.github.madethoughts.hope.json.deserializers;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
 import io.github.madethoughts.hope.profile.PlayerProfile;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.UUID;
 
-public class PlayerProfileDeserializer implements JsonDeserializer<PlayerProfile> {
+/**
+ * Reads the player profile returned by mojang's session server in one pass, without building a json tree.
+ */
+public final class PlayerProfileDeserializer {
+
+    private PlayerProfileDeserializer() {}
+
     /**
-     * Constructs an uuid from the mojang api's hex representation.
+     * Constructs an uuid from the mojang api's hex representation, which lacks the dashes.
      *
      * @param hex the hex sent by mojang
      * @return the UUID
+     * @throws IOException if the hex isn't a valid uuid
      */
-    private static UUID uuidFromHex(String hex) {
-        // adjust uuid format
-        var formattedUUID = hex.substring(0, 8) +
-                            '-' +
-                            hex.substring(8, 12) +
-                            '-' +
-                            hex.substring(12, 16) +
-                            '-' +
-                            hex.substring(16, 20) +
-                            '-' +
-                            hex.substring(20, 30);
-        return UUID.fromString(formattedUUID);
+    private static UUID uuidFromHex(String hex) throws IOException {
+        if (hex.length() != 32) throw new IOException("Invalid uuid %s".formatted(hex));
+        try {
+            return new UUID(
+                    Long.parseUnsignedLong(hex, 0, 16, 16),
+                    Long.parseUnsignedLong(hex, 16, 32, 16)
+            );
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid uuid %s".formatted(hex), e);
+        }
     }
 
-    @Override
-    public PlayerProfile deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
-        var object = json.getAsJsonObject();
-        var uuid = uuidFromHex(object.get("id").getAsString());
-        var name = object.get("name").getAsString();
+    /**
+     * Reads a player profile, unknown properties (e.g. the skin textures) are skipped.
+     *
+     * @param reader the json reader
+     * @return the player profile
+     * @throws IOException if the json is malformed or the uuid or name is missing
+     */
+    public static PlayerProfile deserialize(JsonReader reader) throws IOException {
+        UUID uuid = null;
+        String name = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> uuid = uuidFromHex(reader.nextString());
+                case "name" -> name = reader.nextString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (uuid == null || name == null) throw new IOException("Player profile is missing the uuid or name");
         return new PlayerProfile(uuid, name);
     }
 }
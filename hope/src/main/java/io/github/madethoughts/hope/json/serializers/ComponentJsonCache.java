@@ -0,0 +1,114 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.json.serializers;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caches the UTF-8 encoded json of components, so messages sent over and over again (e.g. kick messages) are only
+ * serialized once.
+ * Constant messages can be pinned, they are looked up by identity and never evicted. All other components are kept
+ * in a bounded least recently used cache, keyed by their structural equality.
+ */
+public final class ComponentJsonCache {
+
+    private final GsonComponentSerializer serializer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private final LinkedHashMap<Component, byte[]> recent;
+
+    // guarded by this, published as immutable snapshot in pinned
+    private final Map<String, Component> pinnedByName = new HashMap<>();
+    private volatile Map<Component, byte[]> pinned = new IdentityHashMap<>();
+
+    /**
+     * @param serializer the serializer used to serialize components
+     * @param maxSize    the maximum amount of not pinned components kept in the cache
+     */
+    public ComponentJsonCache(GsonComponentSerializer serializer, int maxSize) {
+        this.serializer = serializer;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Component, byte[]> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Serializes and pins the given component under a name. Pinning another component with the same name
+     * replaces the previous one, e.g. if a message changed after reloading the config.
+     *
+     * @param name      the name of this message
+     * @param component the component
+     */
+    public synchronized void pin(String name, Component component) {
+        pinnedByName.put(name, component);
+
+        var snapshot = new IdentityHashMap<Component, byte[]>(pinnedByName.size());
+        for (var current : pinnedByName.values()) {
+            var json = pinned.get(current);
+            snapshot.put(current, json != null ? json : serialize(current));
+        }
+        pinned = snapshot;
+    }
+
+    /**
+     * Returns the UTF-8 encoded json of this component, serializing it only if it isn't cached already.
+     * The returned array must not be modified.
+     *
+     * @param component the component
+     * @return the UTF-8 encoded json
+     */
+    public byte[] json(Component component) {
+        var json = pinned.get(component);
+        if (json != null) return json;
+
+        lock.lock();
+        try {
+            json = recent.get(component);
+            if (json != null) return json;
+        } finally {
+            lock.unlock();
+        }
+
+        // serialize without holding the lock, the worst case is a duplicated serialization
+        json = serialize(component);
+        lock.lock();
+        try {
+            recent.put(component, json);
+        } finally {
+            lock.unlock();
+        }
+        return json;
+    }
+
+    private byte[] serialize(Component component) {
+        return serializer.serialize(component).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -18,50 +18,73 @@
 
 package io.github.madethoughts.hope.json.serializers;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.stream.JsonWriter;
+import io.github.madethoughts.hope.Server;
+import io.github.madethoughts.hope.network.ResizableByteBuffer;
 import io.github.madethoughts.hope.network.packets.clientbound.status.StatusResponse;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
-public final class StatusResponseSerializer implements JsonSerializer<StatusResponse> {
+/**
+ * Streams the json of a {@link StatusResponse} directly into a packet buffer as length prefixed string.
+ */
+public final class StatusResponseSerializer {
 
-    @Override
-    public JsonElement serialize(StatusResponse src, Type typeOfSrc, JsonSerializationContext context) {
-        var faviconString = "data:image/png;base64," + Base64.getEncoder().encodeToString(src.favicon());
+    // the favicon rarely changes, so it's only encoded again if the config is reloaded with another one
+    private static volatile Favicon lastFavicon = new Favicon(new byte[0], "");
 
-        var json = new JsonObject();
-        json.add("version", context.serialize(src.version()));
-        json.add("players", context.serialize(src.players()));
-        json.add("description", context.serialize(src.chat()));
-        json.addProperty("favicon", faviconString);
-        json.addProperty("previewsChat", src.previewChat());
-        json.addProperty("enforcesSecureChat", src.enforcesSecureChat());
-        return json;
-    }
+    private StatusResponseSerializer() {}
+
+    /**
+     * Writes the status response as length prefixed json string to the buffer.
+     *
+     * @param src    the status response
+     * @param buffer the buffer
+     */
+    public static void serialize(StatusResponse src, ResizableByteBuffer buffer) {
+        var lengthIndex = buffer.reservePaddedVarInt();
+        var start = buffer.position();
+
+        try (var writer = new Utf8BufferWriter(buffer); var json = new JsonWriter(writer)) {
+            json.beginObject();
+
+            json.name("version").beginObject();
+            json.name("name").value(src.version().name());
+            json.name("protocol").value(src.version().protocol());
+            json.endObject();
 
-    public static final class PlayersSerializer implements JsonSerializer<StatusResponse.Players> {
+            json.name("players").beginObject();
+            json.name("max").value(src.players().max());
+            json.name("online").value(src.players().online());
+            json.endObject();
 
-        @Override
-        public JsonElement serialize(StatusResponse.Players src, Type typeOfSrc, JsonSerializationContext context) {
-            var json = new JsonObject();
-            json.addProperty("max", src.max());
-            json.addProperty("online", src.online());
-            return json;
+            // the cached json is passed through the writer as raw value, so it doesn't rely on how the writer buffers
+            var description = Server.COMPONENT_JSON_CACHE.json(src.chat());
+            json.name("description").jsonValue(new String(description, StandardCharsets.UTF_8));
+
+            json.name("favicon").value(faviconUri(src.favicon()));
+            json.name("previewsChat").value(src.previewChat());
+            json.name("enforcesSecureChat").value(src.enforcesSecureChat());
+            json.endObject();
+        } catch (IOException e) {
+            // never thrown by Utf8BufferWriter
+            throw new UncheckedIOException(e);
         }
+
+        buffer.setPaddedVarInt(lengthIndex, buffer.position() - start);
     }
 
-    public static final class VersionSerializer implements JsonSerializer<StatusResponse.Version> {
+    private static String faviconUri(byte[] favicon) {
+        var last = lastFavicon;
+        if (last.source() == favicon) return last.uri();
 
-        @Override
-        public JsonElement serialize(StatusResponse.Version src, Type typeOfSrc, JsonSerializationContext context) {
-            var json = new JsonObject();
-            json.addProperty("name", src.name());
-            json.addProperty("protocol", src.protocol());
-            return json;
-        }
+        var uri = "data:image/png;base64," + Base64.getEncoder().encodeToString(favicon);
+        lastFavicon = new Favicon(favicon, uri);
+        return uri;
     }
+
+    private record Favicon(byte[] source, String uri) {}
 }
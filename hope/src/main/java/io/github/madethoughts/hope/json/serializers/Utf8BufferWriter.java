@@ -0,0 +1,107 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.json.serializers;
+
+import io.github.madethoughts.hope.network.ResizableByteBuffer;
+
+import java.io.Writer;
+
+/**
+ * An unbuffered {@link Writer} that encodes the written characters as UTF-8 directly into a
+ * {@link ResizableByteBuffer}, so json can be streamed into a packet without building intermediate strings.
+ * Unpaired surrogates are replaced with '?', like {@link String#getBytes(java.nio.charset.Charset)} does.
+ */
+public final class Utf8BufferWriter extends Writer {
+
+    private final ResizableByteBuffer buffer;
+    // a high surrogate waiting for its low surrogate, or 0
+    private char highSurrogate;
+
+    public Utf8BufferWriter(ResizableByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int c) {
+        // one char encodes to 3 bytes at most, pending surrogate pairs included
+        buffer.ensureCapacity(buffer.position() + 6);
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        buffer.ensureCapacity(buffer.position() + len * 3 + 3);
+        for (var i = off; i < off + len; i++) encode(cbuf[i]);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        buffer.ensureCapacity(buffer.position() + len * 3 + 3);
+        for (var i = off; i < off + len; i++) encode(str.charAt(i));
+    }
+
+    private void encode(char c) {
+        // the buffer is only replaced by ensureCapacity, so it's safe to fetch it per char
+        var out = buffer.nioBuffer();
+        if (highSurrogate != 0) {
+            var high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                var codePoint = Character.toCodePoint(high, c);
+                out.put((byte) (0xF0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (codePoint & 0x3F)));
+                return;
+            }
+            out.put((byte) '?');
+        }
+
+        if (c < 0x80) {
+            out.put((byte) c);
+        } else if (c < 0x800) {
+            out.put((byte) (0xC0 | (c >> 6)));
+            out.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            out.put((byte) '?');
+        } else {
+            out.put((byte) (0xE0 | (c >> 12)));
+            out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            out.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    @Override
+    public void flush() {
+        // unbuffered, everything is written to the buffer already
+    }
+
+    /**
+     * Writes a pending unpaired high surrogate, if any.
+     */
+    @Override
+    public void close() {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            buffer.writeArray(new byte[]{'?'});
+        }
+    }
+}
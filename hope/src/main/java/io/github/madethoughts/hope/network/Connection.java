@@ -18,7 +18,7 @@
 
 package io.github.madethoughts.hope.network;
 
-import io.github.madethoughts.hope.network.packets.clientbound.ClientboundPacket;
+import io.github.madethoughts.hope.network.packets.clientbound.ClientboundMessage;
 import io.github.madethoughts.hope.profile.PlayerProfile;
 
 import java.nio.channels.SocketChannel;
@@ -30,11 +30,13 @@ import java.util.concurrent.LinkedBlockingQueue;
  */
 public class Connection {
     private final SocketChannel socketChannel;
-    private final BlockingQueue<ClientboundPacket> clientboundPackets = new LinkedBlockingQueue<>(6);
+    private final BlockingQueue<ClientboundMessage> clientboundPackets = new LinkedBlockingQueue<>(6);
     private State state;
     private McCipher decryptor;
     private McCipher encryptor;
     private PlayerProfile playerProfile;
+    private long joinStarted;
+    private long queueWait;
 
     public Connection(SocketChannel socketChannel, State state) {
         this.socketChannel = socketChannel;
@@ -53,11 +55,11 @@ public class Connection {
         this.state = state;
     }
 
-    public BlockingQueue<ClientboundPacket> clientboundPackets() {
+    public BlockingQueue<ClientboundMessage> clientboundPackets() {
         return clientboundPackets;
     }
 
-    public void queuePacket(ClientboundPacket packet) throws NetworkingException {
+    public void queuePacket(ClientboundMessage packet) throws NetworkingException {
         try {
             clientboundPackets.put(packet);
         } catch (InterruptedException e) {
@@ -88,4 +90,23 @@ public class Connection {
     public void playerProfile(PlayerProfile playerProfile) {
         this.playerProfile = playerProfile;
     }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the player started to join
+     */
+    public long joinStarted() {
+        return joinStarted;
+    }
+
+    public void joinStarted(long joinStarted) {
+        this.joinStarted = joinStarted;
+    }
+
+    public long queueWait() {
+        return queueWait;
+    }
+
+    public void queueWait(long queueWait) {
+        this.queueWait = queueWait;
+    }
 }
@@ -30,6 +30,7 @@ import java.net.SocketAddress;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
@@ -46,10 +47,25 @@ public final class Gatekeeper implements AutoCloseable, Consumer<Server> {
     private final Map<SocketAddress, Connection> connections = new ConcurrentHashMap<>();
     private final ServerSocketChannel socketChannel;
     private final ServerConfig config;
+    private final LoginQueue loginQueue;
+    private final JoinPipeline joinPipeline;
 
     private Gatekeeper(ServerSocketChannel socketChannel, ServerConfig config) {
         this.socketChannel = socketChannel;
         this.config = config;
+        this.loginQueue = new LoginQueue(config.join());
+        this.joinPipeline = new JoinPipeline(config.join());
+        config.addListener(this::configChanged);
+    }
+
+    private void configChanged(Set<String> changedKeys) {
+        if (changedKeys.stream().anyMatch(key -> key.startsWith("join."))) {
+            loginQueue.configure(config.join());
+            joinPipeline.configure(config.join());
+        }
+        if (changedKeys.stream().anyMatch(key -> key.startsWith("networking."))) {
+            log.warn("Changes to the networking config are only applied after a restart.");
+        }
     }
 
     /**
@@ -84,7 +100,7 @@ public final class Gatekeeper implements AutoCloseable, Consumer<Server> {
                                    .name("Sender for %s".formatted(remoteAddress))
                                    .start(new PacketSender(connection));
 
-                Thread.startVirtualThread(new PacketReceiver(connection, sender, config))
+                Thread.startVirtualThread(new PacketReceiver(connection, sender, config, loginQueue, joinPipeline))
                       .setName("Listener for %s".formatted(remoteAddress));
             }
         } catch (IOException e) {
@@ -94,6 +110,13 @@ public final class Gatekeeper implements AutoCloseable, Consumer<Server> {
         }
     }
 
+    /**
+     * @return the pipeline executed for each joining player, used to register additional {@link JoinPipeline.JoinTask}s
+     */
+    public JoinPipeline joinPipeline() {
+        return joinPipeline;
+    }
+
     /**
      * @see SocketChannel#close()
      */
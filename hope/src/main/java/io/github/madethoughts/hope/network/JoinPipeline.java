@@ -0,0 +1,161 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.network;
+
+import com.google.gson.stream.JsonReader;
+import io.github.madethoughts.hope.configuration.JoinConfig;
+import io.github.madethoughts.hope.json.deserializers.PlayerProfileDeserializer;
+import io.github.madethoughts.hope.network.packets.clientbound.login.EncryptionRequest;
+import io.github.madethoughts.hope.network.packets.serverbound.login.LoginStart;
+import io.github.madethoughts.hope.profile.PlayerProfile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the work needed for a player to join concurrently, using a {@link StructuredTaskScope}.
+ * The session server request is executed together with all registered {@link JoinTask}s (e.g. loading persisted
+ * player data or warming per player caches). If one of them fails or the join times out, all other tasks are
+ * cancelled and the join fails as a whole.
+ */
+public final class JoinPipeline {
+
+    public static final HttpClient httpClient = HttpClient.newHttpClient();
+
+    public static final String MOJANG_HASJOINED_URL =
+            "https://sessionserver.mojang.com/session/minecraft/hasJoined?username=%s&serverId=%s";
+
+    private final List<JoinTask> tasks = new CopyOnWriteArrayList<>();
+    private volatile Duration timeout;
+
+    public JoinPipeline(JoinConfig config) {
+        configure(config);
+    }
+
+    /**
+     * Applies the timeout of the given config, e.g. after it got reloaded.
+     *
+     * @param config the config
+     */
+    public void configure(JoinConfig config) {
+        timeout = Duration.ofSeconds(Math.max(config.timeout(), 1));
+    }
+
+    /**
+     * Registers a task that will be executed for each joining player.
+     *
+     * @param task the task
+     */
+    public void register(JoinTask task) {
+        tasks.add(task);
+    }
+
+    /**
+     * Authenticates the player with the session server while running all registered tasks at the same time.
+     * The tasks get the uuid claimed by the client, which is verified against the authenticated profile afterward.
+     *
+     * @param loginStart   the client's login start packet
+     * @param sharedSecret the decrypted shared secret
+     * @return the authenticated player profile
+     * @throws NetworkingException if any part of the join failed or the join timed out
+     */
+    public PlayerProfile join(LoginStart loginStart, byte[] sharedSecret) throws NetworkingException {
+        var timeout = this.timeout;
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            var profileTask = scope.fork(() -> sendJoinedRequest(loginStart, sharedSecret, timeout));
+            for (var task : tasks) {
+                scope.fork(() -> {
+                    task.prepare(loginStart);
+                    return null;
+                });
+            }
+
+            scope.joinUntil(Instant.now().plus(timeout));
+            scope.throwIfFailed(e -> new NetworkingException(
+                    "Join of %s failed".formatted(loginStart.playerName()), e));
+
+            var profile = profileTask.get();
+            if (!profile.uuid().equals(loginStart.uuid())) {
+                throw new NetworkingException("Claimed uuid of %s doesn't match the authenticated one"
+                        .formatted(loginStart.playerName()));
+            }
+            return profile;
+        } catch (InterruptedException e) {
+            throw new NetworkingException(e);
+        } catch (TimeoutException e) {
+            throw new NetworkingException("Join of %s timed out".formatted(loginStart.playerName()), e);
+        }
+    }
+
+    private PlayerProfile sendJoinedRequest(LoginStart loginStart, byte[] sharedSecret, Duration timeout)
+            throws NetworkingException, InterruptedException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(EncryptionRequest.SERVER_ID.getBytes(StandardCharsets.US_ASCII));
+            digest.update(sharedSecret);
+            digest.update(McCipher.serverKey.getPublic().getEncoded());
+            var hash = new BigInteger(digest.digest()).toString(16);
+
+            var request = HttpRequest.newBuilder()
+                    .GET()
+                    .uri(URI.create(MOJANG_HASJOINED_URL.formatted(loginStart.playerName(), hash)))
+                    .timeout(timeout)
+                    .build();
+
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (var reader = new JsonReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                // the session server answers with no content if the player isn't authenticated
+                if (response.statusCode() != 200) {
+                    throw new NetworkingException("%s isn't authenticated, session server responded with %s"
+                            .formatted(loginStart.playerName(), response.statusCode()));
+                }
+                return PlayerProfileDeserializer.deserialize(reader);
+            }
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new NetworkingException(e);
+        }
+    }
+
+    /**
+     * A task executed concurrently to the authentication of each joining player.
+     */
+    @FunctionalInterface
+    public interface JoinTask {
+        /**
+         * @param loginStart the login start packet of the joining player
+         * @throws Exception any exception, failing the whole join
+         */
+        void prepare(LoginStart loginStart) throws Exception;
+    }
+}
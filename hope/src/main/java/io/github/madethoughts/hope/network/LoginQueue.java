@@ -0,0 +1,172 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.network;
+
+import io.github.madethoughts.hope.configuration.JoinConfig;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits logins in FIFO order, so that join storms (e.g. after a restart) are smoothed out instead of doing the
+ * RSA work, the session server request and the configuration of all players at the same time.
+ * Logins are admitted with a fixed rate of logins per second and only if less than the maximum amount of joins are
+ * in flight. A join is in flight from its admission until {@link LoginQueue#leave(Connection)} is called, either
+ * because the player finished the configuration or because the connection got closed. Closed connections give up
+ * their place in the queue as soon as {@link LoginQueue#leave(Connection)} is called for them.
+ */
+public final class LoginQueue {
+
+    /**
+     * The channel used to send the queue position to waiting clients. Unknown channels are answered by the client,
+     * so these messages also act as a cheap keep alive.
+     */
+    public static final String POSITION_CHANNEL = "hope:queue";
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private final Deque<Connection> waiting = new ArrayDeque<>();
+    private final Set<Connection> inFlight = new HashSet<>();
+
+    // guarded by lock
+    private long admissionInterval;
+    private int maxInFlight;
+    private long keepAliveInterval;
+
+    private long nextAdmission = System.nanoTime();
+
+    public LoginQueue(JoinConfig config) {
+        configure(config);
+    }
+
+    /**
+     * Applies the limits of the given config, e.g. after it got reloaded.
+     *
+     * @param config the config
+     */
+    public void configure(JoinConfig config) {
+        lock.lock();
+        try {
+            admissionInterval = TimeUnit.SECONDS.toNanos(1) / Math.max(config.loginsPerSecond(), 1);
+            maxInFlight = Math.max(config.maxInFlight(), 1);
+            keepAliveInterval = TimeUnit.SECONDS.toNanos(Math.max(config.keepAliveInterval(), 1));
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the connection is admitted to join. While waiting, the listener is called with the connection's
+     * position once per keep alive interval, starting as soon as the connection has to wait.
+     *
+     * @param connection the joining connection
+     * @param listener   the listener notified about the queue position
+     * @return true if the connection got admitted, false if it got closed while waiting
+     * @throws InterruptedException if the thread got interrupted while waiting
+     * @throws NetworkingException  any exception thrown by the listener
+     */
+    public boolean admit(Connection connection, PositionListener listener)
+            throws InterruptedException, NetworkingException {
+        var admitted = false;
+        lock.lock();
+        try {
+            waiting.addLast(connection);
+            var nextKeepAlive = System.nanoTime();
+            while (connection.socketChannel().isOpen()) {
+                var now = System.nanoTime();
+                var untilAdmission = Long.MAX_VALUE;
+                if (waiting.peekFirst() == connection && inFlight.size() < maxInFlight) {
+                    untilAdmission = nextAdmission - now;
+                    if (untilAdmission <= 0) {
+                        waiting.removeFirst();
+                        inFlight.add(connection);
+                        nextAdmission = Math.max(nextAdmission, now) + admissionInterval;
+                        admitted = true;
+                        return true;
+                    }
+                }
+
+                if (now - nextKeepAlive >= 0) {
+                    var position = position(connection);
+                    nextKeepAlive = now + keepAliveInterval;
+
+                    // don't block other logins while the listener queues its packet
+                    lock.unlock();
+                    try {
+                        listener.queued(position);
+                    } finally {
+                        lock.lock();
+                    }
+                    continue;
+                }
+
+                changed.awaitNanos(Math.min(untilAdmission, nextKeepAlive - now));
+            }
+            return false;
+        } finally {
+            if (!admitted) waiting.remove(connection);
+            // the head may have changed, let the others recheck their position
+            changed.signalAll();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the join of this connection as finished, freeing its in flight slot. Calling this method multiple times
+     * or for connections that never got admitted has no effect, except waking up a closed connection still waiting
+     * for its admission.
+     *
+     * @param connection the connection
+     */
+    public void leave(Connection connection) {
+        lock.lock();
+        try {
+            inFlight.remove(connection);
+            // also wakes up the connection if it's still waiting, so a closed one leaves the queue right away
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int position(Connection connection) {
+        var position = 1;
+        for (var current : waiting) {
+            if (current == connection) break;
+            position++;
+        }
+        return position;
+    }
+
+    @FunctionalInterface
+    public interface PositionListener {
+        /**
+         * @param position the 1-based position in the queue
+         * @throws NetworkingException any exception thrown while notifying the client
+         */
+        void queued(int position) throws NetworkingException;
+    }
+}
@@ -29,4 +29,8 @@ public class NetworkingException extends Exception {
     public NetworkingException(String message) {
         super(message);
     }
+
+    public NetworkingException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
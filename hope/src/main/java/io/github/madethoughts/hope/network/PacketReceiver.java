@@ -53,14 +53,17 @@ public final class PacketReceiver implements Runnable {
     private final PacketHandler<ServerboundPacket.ConfigurationPacket> configurationHandler;
 
     private final Thread senderThread;
+    private final LoginQueue loginQueue;
 
-    public PacketReceiver(Connection connection, Thread senderThread, ServerConfig config) {
+    public PacketReceiver(Connection connection, Thread senderThread, ServerConfig config, LoginQueue loginQueue,
+                          JoinPipeline joinPipeline) {
         this.connection = connection;
         handshakeHandler = new HandshakeHandler(connection);
         statusHandler = new StatusHandler(connection, config);
-        loginHandler = new LoginHandler(connection);
-        configurationHandler = new ConfigurationHandler(connection);
+        loginHandler = new LoginHandler(connection, loginQueue, joinPipeline);
+        configurationHandler = new ConfigurationHandler(connection, loginQueue);
         this.senderThread = senderThread;
+        this.loginQueue = loginQueue;
     }
 
     /**
@@ -116,6 +119,8 @@ public final class PacketReceiver implements Runnable {
         } finally {
             // interrupt sender thread to stop blocking for incoming packets
             senderThread.interrupt();
+            // free the in flight slot if the connection closed while joining
+            loginQueue.leave(connection);
 
             log.info("Connection closed.");
         }
@@ -18,7 +18,9 @@
 
 package io.github.madethoughts.hope.network;
 
+import io.github.madethoughts.hope.network.packets.clientbound.ClientboundMessage;
 import io.github.madethoughts.hope.network.packets.clientbound.ClientboundPacket;
+import io.github.madethoughts.hope.network.packets.clientbound.CoalescedPackets;
 import io.github.madethoughts.hope.network.packets.clientbound.login.LoginDisconnect;
 import io.github.madethoughts.hope.network.packets.clientbound.status.PingResponse;
 import org.slf4j.Logger;
@@ -31,7 +33,8 @@ import java.util.concurrent.BlockingQueue;
 /**
  * This class is responsible for serializing and sending packets waiting in the {@link Connection#clientboundPackets()}
  * queue.
- * The sender supports encryption but no compression.
+ * The sender supports encryption but no compression. Each packet is sent by a single write, {@link CoalescedPackets}
+ * are written as they are.
  * If any exception is thrown while serializing or sending, the sender stops listening for new packets in the queue
  * and closes the underlying {@link SocketChannel}, which will cause the {@link PacketReceiver} to stop.
  */
@@ -40,11 +43,12 @@ public class PacketSender implements Runnable {
     private static final Logger log = LoggerFactory.getLogger(PacketSender.class);
 
     private final Connection connection;
-    private final BlockingQueue<ClientboundPacket> packetQueue;
+    private final BlockingQueue<ClientboundMessage> packetQueue;
 
     private final ByteBuffer lengthBuffer = ByteBuffer.allocate(5);
 
     private final ResizableByteBuffer buffer = ResizableByteBuffer.allocateDirect();
+    private final ByteBuffer[] outgoing = new ByteBuffer[2];
 
     public PacketSender(Connection connection) {
         this.connection = connection;
@@ -57,26 +61,33 @@ public class PacketSender implements Runnable {
             while (channel.isOpen()) {
                 var packet = packetQueue.take();
 
-                // deserialize packet
+                // serialize packet, coalesced packets are framed already
                 buffer.clear();
-                buffer.writeVarInt(packet.id());
-                packet.serialize(buffer);
-
                 lengthBuffer.clear();
-                ResizableByteBuffer.writeVarInt(lengthBuffer, buffer.position());
+                switch (packet) {
+                    case CoalescedPackets packets -> buffer.writeArray(packets.frames());
+                    case ClientboundPacket single -> {
+                        buffer.writeVarInt(single.id());
+                        single.serialize(buffer);
+                        ResizableByteBuffer.writeVarInt(lengthBuffer, buffer.position());
+                    }
+                }
+                lengthBuffer.flip();
+                buffer.flip();
 
                 // encrypt packet
                 var encryptor = connection.encryptor();
                 if (encryptor != null) {
-                    lengthBuffer.flip();
                     encryptor.update(lengthBuffer);
-                    buffer.flip();
                     encryptor.update(buffer.nioBuffer());
+                    lengthBuffer.flip();
+                    buffer.flip();
                 }
 
-                // write packet
-                channel.write(lengthBuffer.flip());
-                channel.write(buffer.nioBuffer().flip());
+                // write length and packet at once
+                outgoing[0] = lengthBuffer;
+                outgoing[1] = buffer.nioBuffer();
+                while (outgoing[1].hasRemaining()) channel.write(outgoing);
 
                 log.debug("Send {} || Encrypted: {}", packet, connection.encryptor() != null);
 
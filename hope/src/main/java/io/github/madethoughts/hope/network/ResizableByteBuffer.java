@@ -39,6 +39,8 @@ public final class ResizableByteBuffer {
     public static final Charset CHARSET = StandardCharsets.UTF_8;
     private static final int VARINT_SEGMENT = 0x7F;
     private static final int VARINT_CONTINUE = 0x80;
+    // enough for every length up to MAX_CAPACITY
+    private static final int PADDED_VARINT_SIZE = 3;
     private ByteBuffer buffer;
 
     private ResizableByteBuffer(ByteBuffer start) {
@@ -136,6 +138,33 @@ public final class ResizableByteBuffer {
         writeOp(() -> writeVarInt(buffer, val));
     }
 
+    /**
+     * Reserves space for a varint, whose value isn't known yet. The varint is padded to always use 3 bytes and
+     * can be set afterward by {@link ResizableByteBuffer#setPaddedVarInt(int, int)}.
+     *
+     * @return the index of the reserved varint
+     */
+    public int reservePaddedVarInt() {
+        var index = buffer.position();
+        writeOp(() -> {
+            for (var i = 0; i < PADDED_VARINT_SIZE; i++) buffer.put((byte) 0);
+        });
+        return index;
+    }
+
+    /**
+     * Sets a varint reserved by {@link ResizableByteBuffer#reservePaddedVarInt()}, without changing the position.
+     *
+     * @param index the index of the reserved varint
+     * @param val   the int value, must be less than 2^21
+     */
+    public void setPaddedVarInt(int index, int val) {
+        if ((val >>> 7 * PADDED_VARINT_SIZE) != 0) throw new IllegalArgumentException("Value is too big.");
+        buffer.put(index, (byte) ((val & VARINT_SEGMENT) | VARINT_CONTINUE));
+        buffer.put(index + 1, (byte) (((val >>> 7) & VARINT_SEGMENT) | VARINT_CONTINUE));
+        buffer.put(index + 2, (byte) (val >>> 14));
+    }
+
     /**
      * Reads a varint from this buffer.
      *
@@ -205,7 +234,17 @@ public final class ResizableByteBuffer {
      * @see ResizableByteBuffer#writeArray(byte[])
      */
     public void writeString(String val) {
-        var bytes = val.getBytes(CHARSET);
+        writeEncodedString(val.getBytes(CHARSET));
+    }
+
+    /**
+     * Writes an already UTF-8 encoded, length prefixed string to this buffer
+     *
+     * @param bytes the encoded string
+     * @see ResizableByteBuffer#writeVarInt(int)
+     * @see ResizableByteBuffer#writeArray(byte[])
+     */
+    public void writeEncodedString(byte[] bytes) {
         writeVarInt(bytes.length);
         writeArray(bytes);
     }
@@ -373,6 +412,16 @@ public final class ResizableByteBuffer {
         return buffer.limit();
     }
 
+    /**
+     * Sets the buffer's limit
+     *
+     * @param limit the new limit
+     * @see ByteBuffer#limit(int)
+     */
+    public void limit(int limit) {
+        buffer.limit(limit);
+    }
+
     /**
      * An exception that indicated that something went wrong while reading/writing data from this buffer.
      * Note that this is not thrown if the buffer has to few bytes, instead a {@link BufferUnderflowException} is
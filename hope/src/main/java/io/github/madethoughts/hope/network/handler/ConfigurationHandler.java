@@ -1,28 +1,66 @@
 package io.github.madethoughts.hope.network.handler;
 
 import io.github.madethoughts.hope.network.Connection;
+import io.github.madethoughts.hope.network.LoginQueue;
 import io.github.madethoughts.hope.network.NetworkingException;
 import io.github.madethoughts.hope.network.State;
+import io.github.madethoughts.hope.network.packets.clientbound.CoalescedPackets;
 import io.github.madethoughts.hope.network.packets.clientbound.configuration.ClientboundFinishConfiguration;
+import io.github.madethoughts.hope.network.packets.clientbound.configuration.RegistryData;
 import io.github.madethoughts.hope.network.packets.serverbound.ServerboundPacket;
 import io.github.madethoughts.hope.network.packets.serverbound.configuration.ClientInformation;
 import io.github.madethoughts.hope.network.packets.serverbound.configuration.FinishConfiguration;
 import io.github.madethoughts.hope.network.packets.serverbound.configuration.PluginMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handles the configuration phase. The whole configuration is sent at once right after the login was acknowledged,
+ * see {@link ConfigurationHandler#CONFIGURATION}, so the client's information and plugin messages don't hold it up
+ * and joining takes a single round trip.
+ */
 public class ConfigurationHandler implements PacketHandler<ServerboundPacket.ConfigurationPacket> {
 
+    /**
+     * The packets of the configuration phase, built once and sent in one write.
+     */
+    public static final CoalescedPackets CONFIGURATION = CoalescedPackets.of(
+            RegistryData.VANILLA,
+            new ClientboundFinishConfiguration()
+    );
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigurationHandler.class);
+
     private final Connection connection;
+    private final LoginQueue loginQueue;
 
-    public ConfigurationHandler(Connection connection) {
+    public ConfigurationHandler(Connection connection, LoginQueue loginQueue) {
         this.connection = connection;
+        this.loginQueue = loginQueue;
     }
 
     @Override
     public void handle(ServerboundPacket.ConfigurationPacket packet) throws NetworkingException {
         switch (packet) {
-            case PluginMessage _ -> connection.queuePacket(new ClientboundFinishConfiguration());
-            case ClientInformation _ -> {}
-            case FinishConfiguration _ -> connection.state(State.PLAY);
+            // neither is needed to finish the configuration
+            case PluginMessage _, ClientInformation _ -> {}
+            case FinishConfiguration _ -> {
+                connection.state(State.PLAY);
+                loginQueue.leave(connection);
+                recordTimeToPlay();
+            }
         }
     }
+
+    private void recordTimeToPlay() {
+        var timeToPlay = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connection.joinStarted());
+        var queueWait = TimeUnit.NANOSECONDS.toMillis(connection.queueWait());
+        log.atInfo()
+           .addKeyValue("timeToPlay", timeToPlay)
+           .addKeyValue("queueWait", queueWait)
+           .log("{} joined the game in {} ms after waiting {} ms in the login queue",
+                connection.playerProfile().name(), timeToPlay, queueWait);
+    }
 }
@@ -25,14 +25,19 @@ import io.github.madethoughts.hope.network.NetworkingException;
 import io.github.madethoughts.hope.network.State;
 import io.github.madethoughts.hope.network.packets.clientbound.login.LoginDisconnect;
 import io.github.madethoughts.hope.network.packets.serverbound.handshake.Handshake;
+import io.github.madethoughts.hope.text.MessageTemplate;
+import net.kyori.adventure.text.Component;
 
 /**
  * This class is responsible for handling the handshake packet.
  */
 public class HandshakeHandler implements PacketHandler<Handshake> {
-    public static final String LOGIN_KICK_MESSAGE =
-            "<red> Your version unsupported, only the version %s is supported. Please update your game!"
-                    .formatted(VersionedConstants.VERSION);
+    private static final MessageTemplate LOGIN_KICK_TEMPLATE = MessageTemplate.compile(Server.MINI_MESSAGE,
+            "<red> Your version unsupported, only the version <version> is supported. Please update your game!",
+            "version"
+    );
+    public static final Component LOGIN_KICK_MESSAGE =
+            LOGIN_KICK_TEMPLATE.render(Component.text(VersionedConstants.VERSION));
     private final Connection connection;
 
     public HandshakeHandler(Connection connection) {
@@ -43,7 +48,7 @@ public class HandshakeHandler implements PacketHandler<Handshake> {
     public void handle(Handshake packet) throws NetworkingException {
         // if the next state is status, we will just send the response
         if (packet.protocolNumber() != VersionedConstants.PROTOCOL_VERSION && packet.nextState() == State.LOGIN) {
-            connection.queuePacket(new LoginDisconnect(Server.MINI_MESSAGE.deserialize(LOGIN_KICK_MESSAGE)));
+            connection.queuePacket(new LoginDisconnect(LOGIN_KICK_MESSAGE));
         }
 
         connection.state(packet.nextState());
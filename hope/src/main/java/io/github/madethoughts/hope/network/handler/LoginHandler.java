@@ -18,54 +18,62 @@
 
 package io.github.madethoughts.hope.network.handler;
 
-import io.github.madethoughts.hope.Server;
 import io.github.madethoughts.hope.network.Connection;
+import io.github.madethoughts.hope.network.JoinPipeline;
+import io.github.madethoughts.hope.network.LoginQueue;
 import io.github.madethoughts.hope.network.McCipher;
 import io.github.madethoughts.hope.network.NetworkingException;
 import io.github.madethoughts.hope.network.State;
 import io.github.madethoughts.hope.network.packets.clientbound.login.EncryptionRequest;
+import io.github.madethoughts.hope.network.packets.clientbound.login.LoginPluginRequest;
 import io.github.madethoughts.hope.network.packets.clientbound.login.LoginSuccess;
 import io.github.madethoughts.hope.network.packets.serverbound.ServerboundPacket;
 import io.github.madethoughts.hope.network.packets.serverbound.login.EncryptionResponse;
 import io.github.madethoughts.hope.network.packets.serverbound.login.LoginAcknowledged;
+import io.github.madethoughts.hope.network.packets.serverbound.login.LoginPluginResponse;
 import io.github.madethoughts.hope.network.packets.serverbound.login.LoginStart;
-import io.github.madethoughts.hope.profile.PlayerProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.IOException;
-import java.math.BigInteger;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
  * This class is responsible for handling login packets, including enabling encryption activation and authentication
- * with mojang api.
+ * with mojang api. Logins have to be admitted by the {@link LoginQueue} before any expensive work is done, the
+ * authentication itself is done by the {@link JoinPipeline}.
  */
 public class LoginHandler implements PacketHandler<ServerboundPacket.LoginPacket> {
 
-    public static final HttpClient httpClient = HttpClient.newHttpClient();
-
-    public static final String MOJANG_HASJOINED_URL =
-            "https://sessionserver.mojang.com/session/minecraft/hasJoined?username=%s&serverId=%s";
+    private static final Logger log = LoggerFactory.getLogger(LoginHandler.class);
 
     private final Connection connection;
+    private final LoginQueue loginQueue;
+    private final JoinPipeline joinPipeline;
     private LoginStart loginStart = null;
+    private int nextPluginMessageId = 0;
 
-    public LoginHandler(Connection connection) {this.connection = connection;}
+    public LoginHandler(Connection connection, LoginQueue loginQueue, JoinPipeline joinPipeline) {
+        this.connection = connection;
+        this.loginQueue = loginQueue;
+        this.joinPipeline = joinPipeline;
+    }
 
     @Override
     public void handle(ServerboundPacket.LoginPacket packet) throws NetworkingException {
         switch (packet) {
             case LoginStart start -> handleLoginStart(start);
             case EncryptionResponse response -> handleEncryptionResponse(response);
-            case LoginAcknowledged _ -> connection.state(State.CONFIGURATION);
+            case LoginAcknowledged _ -> {
+                connection.state(State.CONFIGURATION);
+                // without waiting for the client's configuration packets
+                connection.queuePacket(ConfigurationHandler.CONFIGURATION);
+            }
+            // answers to the queue position messages, only used as keep alive
+            case LoginPluginResponse _ -> {}
         }
     }
 
@@ -82,38 +90,48 @@ public class LoginHandler implements PacketHandler<ServerboundPacket.LoginPacket
         connection.encryptor(new McCipher(secretKey, sharedSecret, Cipher.ENCRYPT_MODE));
         connection.decryptor(new McCipher(secretKey, sharedSecret, Cipher.DECRYPT_MODE));
 
-        var playerProfile = sendJoinedRequest(sharedSecret);
+        var playerProfile = joinPipeline.join(loginStart, sharedSecret);
         connection.playerProfile(playerProfile);
 
         connection.queuePacket(new LoginSuccess(playerProfile.uuid(), playerProfile.name()));
     }
 
-    private void handleLoginStart(LoginStart packet) throws NetworkingException {
+    private void handleLoginStart(LoginStart packet) {
         loginStart = packet;
-        connection.queuePacket(new EncryptionRequest(
-                McCipher.serverKey.getPublic().getEncoded(),
-                McCipher.verifyToken
-        ));
+        // waits on its own thread, so the receiver keeps reading and notices a disconnect right away
+        Thread.ofVirtual()
+              .name("login-queue-" + packet.playerName())
+              .start(this::awaitAdmission);
     }
 
-    private PlayerProfile sendJoinedRequest(byte[] sharedSecret) throws NetworkingException {
+    private void awaitAdmission() {
+        var queued = System.nanoTime();
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-1");
-            digest.update(EncryptionRequest.SERVER_ID.getBytes(StandardCharsets.US_ASCII));
-            digest.update(sharedSecret);
-            digest.update(McCipher.serverKey.getPublic().getEncoded());
-            var hash = new BigInteger(digest.digest()).toString(16);
-
-            // TODO: 3/12/23 implement check for unauthenticated profiles
-            var request = HttpRequest.newBuilder()
-                    .GET()
-                    .uri(URI.create(MOJANG_HASJOINED_URL.formatted(loginStart.playerName(), hash)))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            return Server.GSON.fromJson(response.body(), PlayerProfile.class);
-        } catch (NoSuchAlgorithmException | InterruptedException | IOException e) {
-            throw new NetworkingException(e);
+            // connection got closed while waiting
+            if (!loginQueue.admit(connection, this::sendQueuePosition)) return;
+
+            // the join is timed from the admission, so waiting in the queue doesn't hide the pipeline's latency
+            var admitted = System.nanoTime();
+            connection.queueWait(admitted - queued);
+            connection.joinStarted(admitted);
+
+            connection.queuePacket(new EncryptionRequest(
+                    McCipher.serverKey.getPublic().getEncoded(),
+                    McCipher.verifyToken
+            ));
+        } catch (InterruptedException | NetworkingException e) {
+            log.error("Failed to admit {}, closing connection", loginStart.playerName(), e);
+            try {
+                connection.socketChannel().close();
+            } catch (IOException closeException) {
+                e.addSuppressed(closeException);
+            }
         }
     }
+
+    private void sendQueuePosition(int position) throws NetworkingException {
+        log.debug("{} is waiting in login queue at position {}", loginStart.playerName(), position);
+        var data = ByteBuffer.allocate(Integer.BYTES).putInt(position).array();
+        connection.queuePacket(new LoginPluginRequest(nextPluginMessageId++, LoginQueue.POSITION_CHANNEL, data));
+    }
 }
@@ -23,6 +23,7 @@ import io.github.madethoughts.hope.network.packets.clientbound.configuration.Cli
 import io.github.madethoughts.hope.network.packets.clientbound.configuration.RegistryData;
 import io.github.madethoughts.hope.network.packets.clientbound.login.EncryptionRequest;
 import io.github.madethoughts.hope.network.packets.clientbound.login.LoginDisconnect;
+import io.github.madethoughts.hope.network.packets.clientbound.login.LoginPluginRequest;
 import io.github.madethoughts.hope.network.packets.clientbound.login.LoginSuccess;
 import io.github.madethoughts.hope.network.packets.clientbound.status.PingResponse;
 import io.github.madethoughts.hope.network.packets.clientbound.status.StatusResponse;
@@ -30,8 +31,9 @@ import io.github.madethoughts.hope.network.packets.clientbound.status.StatusResp
 /**
  * Indicated that a packet is client bound and is serializable.
  */
-public sealed interface ClientboundPacket
-        permits ClientboundFinishConfiguration, RegistryData, EncryptionRequest, LoginDisconnect, LoginSuccess, PingResponse, StatusResponse {
+public sealed interface ClientboundPacket extends ClientboundMessage
+        permits ClientboundFinishConfiguration, RegistryData, EncryptionRequest, LoginDisconnect, LoginPluginRequest,
+                LoginSuccess, PingResponse, StatusResponse {
 
     void serialize(ResizableByteBuffer buffer);
 
@@ -0,0 +1,54 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.network.packets.clientbound;
+
+import io.github.madethoughts.hope.network.ResizableByteBuffer;
+
+/**
+ * Several packets serialized and framed ahead of time, which are sent by a single write. Use it for sequences of
+ * constant packets, like the configuration phase, so they are neither serialized per connection nor split into
+ * several writes. The frames are written as they are, so they aren't a packet of their own.
+ *
+ * @param frames the length prefixed packets
+ */
+public record CoalescedPackets(
+        byte[] frames
+) implements ClientboundMessage {
+
+    /**
+     * Serializes and frames the packets in order.
+     *
+     * @param packets the packets
+     * @return the coalesced packets
+     */
+    public static CoalescedPackets of(ClientboundPacket... packets) {
+        var buffer = ResizableByteBuffer.allocateDirect();
+        for (var packet : packets) {
+            var lengthIndex = buffer.reservePaddedVarInt();
+            var start = buffer.position();
+            buffer.writeVarInt(packet.id());
+            packet.serialize(buffer);
+            buffer.setPaddedVarInt(lengthIndex, buffer.position() - start);
+        }
+        buffer.flip();
+        var frames = new byte[buffer.remaining()];
+        buffer.nioBuffer().get(frames);
+        return new CoalescedPackets(frames);
+    }
+}
@@ -2,16 +2,23 @@ package io.github.madethoughts.hope.network.packets.clientbound.configuration;
 
 import io.github.madethoughts.hope.network.ResizableByteBuffer;
 import io.github.madethoughts.hope.network.packets.clientbound.ClientboundPacket;
-import io.github.madethoughts.hope.network.packets.serverbound.ServerboundPacket;
+import io.github.madethoughts.hope.registry.Registry;
 
+/**
+ * @param data the registries as network nbt, see {@link Registry#serialize(java.util.List)}
+ */
 public record RegistryData(
         byte[] data
 ) implements ClientboundPacket {
+
+    /**
+     * The vanilla registries, serialized once and shared by all connections.
+     */
+    public static final RegistryData VANILLA = new RegistryData(Registry.serialize(Registry.VANILLA));
+
     @Override
     public void serialize(ResizableByteBuffer buffer) {
-        // TODO: implement that right
         buffer.writeArray(data);
-
     }
 
     @Override
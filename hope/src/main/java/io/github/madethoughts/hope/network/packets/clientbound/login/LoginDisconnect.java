@@ -26,7 +26,7 @@ import net.kyori.adventure.text.Component;
 public record LoginDisconnect(Component reason) implements ClientboundPacket {
     @Override
     public void serialize(ResizableByteBuffer buffer) {
-        buffer.writeString(Server.GSON.toJson(reason));
+        buffer.writeEncodedString(Server.COMPONENT_JSON_CACHE.json(reason));
     }
 
     @Override
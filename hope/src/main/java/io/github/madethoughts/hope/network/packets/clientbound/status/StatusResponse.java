@@ -18,7 +18,7 @@
 
 package io.github.madethoughts.hope.network.packets.clientbound.status;
 
-import io.github.madethoughts.hope.Server;
+import io.github.madethoughts.hope.json.serializers.StatusResponseSerializer;
 import io.github.madethoughts.hope.network.ResizableByteBuffer;
 import io.github.madethoughts.hope.network.packets.clientbound.ClientboundPacket;
 import net.kyori.adventure.text.Component;
@@ -34,7 +34,7 @@ public record StatusResponse(
 
     @Override
     public void serialize(ResizableByteBuffer buffer) {
-        buffer.writeString(Server.GSON.toJson(this));
+        StatusResponseSerializer.serialize(this, buffer);
     }
 
     @Override
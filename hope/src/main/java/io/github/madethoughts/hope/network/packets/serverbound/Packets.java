@@ -26,6 +26,7 @@ import io.github.madethoughts.hope.network.packets.serverbound.configuration.Plu
 import io.github.madethoughts.hope.network.packets.serverbound.handshake.Handshake;
 import io.github.madethoughts.hope.network.packets.serverbound.login.EncryptionResponse;
 import io.github.madethoughts.hope.network.packets.serverbound.login.LoginAcknowledged;
+import io.github.madethoughts.hope.network.packets.serverbound.login.LoginPluginResponse;
 import io.github.madethoughts.hope.network.packets.serverbound.login.LoginStart;
 import io.github.madethoughts.hope.network.packets.serverbound.status.PingRequest;
 import io.github.madethoughts.hope.network.packets.serverbound.status.StatusRequest;
@@ -44,6 +45,7 @@ public enum Packets {
     // Login state
     LOGIN_START(State.LOGIN, 0x0, LoginStart.DESERIALIZER),
     ENCRYPTION_RESPONSE(State.LOGIN, 0x1, EncryptionResponse.DESERIALIZER),
+    LOGIN_PLUGIN_RESPONSE(State.LOGIN, 0x02, LoginPluginResponse.DESERIALIZER),
     LOGIN_ACKNOWLEDGED(State.LOGIN, 0x03, _ -> new LoginAcknowledged()),
 
     // Configuration state
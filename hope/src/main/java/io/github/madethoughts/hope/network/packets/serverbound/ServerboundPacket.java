@@ -27,6 +27,7 @@ import io.github.madethoughts.hope.network.packets.serverbound.configuration.Plu
 import io.github.madethoughts.hope.network.packets.serverbound.handshake.Handshake;
 import io.github.madethoughts.hope.network.packets.serverbound.login.EncryptionResponse;
 import io.github.madethoughts.hope.network.packets.serverbound.login.LoginAcknowledged;
+import io.github.madethoughts.hope.network.packets.serverbound.login.LoginPluginResponse;
 import io.github.madethoughts.hope.network.packets.serverbound.login.LoginStart;
 import io.github.madethoughts.hope.network.packets.serverbound.status.PingRequest;
 import io.github.madethoughts.hope.network.packets.serverbound.status.StatusRequest;
@@ -58,8 +59,17 @@ public sealed interface ServerboundPacket {
                 return new DeserializerResult.MoreBytesNeeded(length);
             }
 
+            // restrict the buffer to this packet, so that packets can't read into the following one
+            var end = buffer.position() + length;
+            var limit = buffer.limit();
+            buffer.limit(end);
+
             var id = buffer.readVarInt();
             var deserialized = Packets.tryDeserialize(state, id, buffer);
+
+            // skip unread bytes, e.g. of unknown packets
+            buffer.limit(limit);
+            buffer.position(end);
             buffer.compact();
             return deserialized;
         } catch (ResizableByteBuffer.TypeDeserializationException e) {
@@ -71,7 +81,7 @@ public sealed interface ServerboundPacket {
 
     sealed interface StatusPacket extends ServerboundPacket permits PingRequest, StatusRequest {}
 
-    sealed interface LoginPacket extends ServerboundPacket permits EncryptionResponse, LoginAcknowledged, LoginStart {}
+    sealed interface LoginPacket extends ServerboundPacket permits EncryptionResponse, LoginAcknowledged, LoginPluginResponse, LoginStart {}
 
     sealed interface ConfigurationPacket extends ServerboundPacket permits ClientInformation, FinishConfiguration, PluginMessage {}
 }
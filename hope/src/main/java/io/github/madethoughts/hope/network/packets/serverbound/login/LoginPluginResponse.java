@@ -0,0 +1,35 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.network.packets.serverbound.login;
+
+import io.github.madethoughts.hope.network.packets.serverbound.Deserializer;
+import io.github.madethoughts.hope.network.packets.serverbound.ServerboundPacket;
+
+public record LoginPluginResponse(
+        int messageId,
+        boolean successful,
+        byte[] data
+) implements ServerboundPacket.LoginPacket {
+    public static final Deserializer<LoginPluginResponse> DESERIALIZER = buffer -> {
+        var messageId = buffer.readVarInt();
+        var successful = buffer.readBoolean();
+        var data = successful ? buffer.readArray(buffer.remaining()) : new byte[0];
+        return new LoginPluginResponse(messageId, successful, data);
+    };
+}
@@ -0,0 +1,66 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.registry;
+
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+
+import static io.github.madethoughts.hope.registry.NbtFields.*;
+
+/**
+ * The climate and colors of a biome, see the "worldgen/biome" registry. Only the properties needed by clients are
+ * included, the mood sound is the vanilla cave ambience.
+ */
+public record Biome(
+        boolean hasPrecipitation,
+        float temperature,
+        float downfall,
+        int fogColor,
+        int waterColor,
+        int waterFogColor,
+        int skyColor
+) implements RegistryElement {
+
+    /**
+     * Required by clients, which fall back to it for unknown biomes.
+     */
+    public static final Biome PLAINS = new Biome(true, 0.8f, 0.4f, 12638463, 4159204, 329011, 7907327);
+
+    @Override
+    public void write(NbtWriter writer) {
+        writeBoolean(writer, "has_precipitation", hasPrecipitation);
+        writeFloat(writer, "temperature", temperature);
+        writeFloat(writer, "downfall", downfall);
+
+        writer.writeHeader(Type.COMPOUND, "effects");
+        writeInt(writer, "fog_color", fogColor);
+        writeInt(writer, "water_color", waterColor);
+        writeInt(writer, "water_fog_color", waterFogColor);
+        writeInt(writer, "sky_color", skyColor);
+
+        writer.writeHeader(Type.COMPOUND, "mood_sound");
+        writeInt(writer, "tick_delay", 6000);
+        writeDouble(writer, "offset", 2);
+        writeString(writer, "sound", "minecraft:ambient.cave");
+        writeInt(writer, "block_search_extent", 8);
+        writer.writeEnd();
+
+        writer.writeEnd();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.registry;
+
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+
+import java.util.List;
+
+import static io.github.madethoughts.hope.registry.NbtFields.*;
+
+/**
+ * How chat messages are displayed and narrated, see the "chat_type" registry.
+ *
+ * @param chat      the decoration of displayed messages
+ * @param narration the decoration of narrated messages
+ */
+public record ChatType(
+        Decoration chat,
+        Decoration narration
+) implements RegistryElement {
+
+    private static final List<String> SENDER_CONTENT = List.of("sender", "content");
+    private static final Decoration NARRATE = new Decoration("chat.type.text.narrate", SENDER_CONTENT, false);
+
+    public static final ChatType CHAT = new ChatType(new Decoration("chat.type.text", SENDER_CONTENT, false), NARRATE);
+    public static final ChatType EMOTE_COMMAND = new ChatType(
+            new Decoration("chat.type.emote", SENDER_CONTENT, false),
+            new Decoration("chat.type.emote", SENDER_CONTENT, false)
+    );
+    public static final ChatType MSG_COMMAND_INCOMING = new ChatType(
+            new Decoration("commands.message.display.incoming", SENDER_CONTENT, true), NARRATE
+    );
+    public static final ChatType MSG_COMMAND_OUTGOING = new ChatType(
+            new Decoration("commands.message.display.outgoing", List.of("target", "content"), true), NARRATE
+    );
+    public static final ChatType SAY_COMMAND = new ChatType(
+            new Decoration("chat.type.announcement", SENDER_CONTENT, false), NARRATE
+    );
+    public static final ChatType TEAM_MSG_COMMAND_INCOMING = new ChatType(
+            new Decoration("chat.type.team.text", List.of("target", "sender", "content"), false), NARRATE
+    );
+    public static final ChatType TEAM_MSG_COMMAND_OUTGOING = new ChatType(
+            new Decoration("chat.type.team.sent", List.of("target", "sender", "content"), false), NARRATE
+    );
+
+    @Override
+    public void write(NbtWriter writer) {
+        chat.write(writer, "chat");
+        narration.write(writer, "narration");
+    }
+
+    /**
+     * @param translationKey the translation key of the decoration
+     * @param parameters     the parts of the message inserted into the translation
+     * @param whisper        whether the message is styled gray and italic, like private messages
+     */
+    public record Decoration(
+            String translationKey,
+            List<String> parameters,
+            boolean whisper
+    ) {
+        private void write(NbtWriter writer, String name) {
+            writer.writeHeader(Type.COMPOUND, name);
+            writeString(writer, "translation_key", translationKey);
+
+            writer.writeHeader(Type.LIST, "parameters");
+            writer.writeListHeader(Type.STRING, parameters.size());
+            parameters.forEach(writer::writeString);
+
+            if (whisper) {
+                writer.writeHeader(Type.COMPOUND, "style");
+                writeString(writer, "color", "gray");
+                writeBoolean(writer, "italic", true);
+                writer.writeEnd();
+            }
+            writer.writeEnd();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.registry;
+
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+
+import java.util.Map;
+import java.util.SequencedMap;
+
+import static io.github.madethoughts.hope.registry.NbtFields.*;
+
+/**
+ * A kind of damage, see the "damage_type" registry.
+ *
+ * @param messageId        the id of the death message
+ * @param scaling          whether the damage scales with the difficulty
+ * @param exhaustion       the exhaustion caused by the damage
+ * @param effects          the sound played on damage, null for the default
+ * @param deathMessageType the kind of death message, null for the default
+ */
+public record DamageType(
+        String messageId,
+        Scaling scaling,
+        float exhaustion,
+        String effects,
+        String deathMessageType
+) implements RegistryElement {
+
+    /**
+     * All damage types of vanilla 1.20.4, clients require each one of them.
+     */
+    public static final SequencedMap<String, DamageType> VANILLA = Registry.ordered(
+            damage("minecraft:arrow", "arrow", 0.1f),
+            Map.entry("minecraft:bad_respawn_point", new DamageType("badRespawnPoint", Scaling.ALWAYS, 0.1f, null,
+                    "intentional_game_design")),
+            damage("minecraft:cactus", "cactus", 0.1f),
+            damage("minecraft:cramming", "cramming", 0),
+            damage("minecraft:dragon_breath", "dragonBreath", 0),
+            damage("minecraft:drown", "drown", 0, "drowning"),
+            damage("minecraft:dry_out", "dryout", 0.1f),
+            Map.entry("minecraft:explosion", new DamageType("explosion", Scaling.ALWAYS, 0.1f, null, null)),
+            Map.entry("minecraft:fall", new DamageType("fall", Scaling.WHEN_CAUSED_BY_LIVING_NON_PLAYER, 0, null,
+                    "fall_variants")),
+            damage("minecraft:falling_anvil", "anvil", 0.1f),
+            damage("minecraft:falling_block", "fallingBlock", 0.1f),
+            damage("minecraft:falling_stalactite", "fallingStalactite", 0.1f),
+            damage("minecraft:fireball", "fireball", 0.1f, "burning"),
+            damage("minecraft:fireworks", "fireworks", 0.1f),
+            damage("minecraft:fly_into_wall", "flyIntoWall", 0),
+            damage("minecraft:freeze", "freeze", 0, "freezing"),
+            damage("minecraft:generic", "generic", 0),
+            damage("minecraft:generic_kill", "genericKill", 0),
+            damage("minecraft:hot_floor", "hotFloor", 0.1f, "burning"),
+            damage("minecraft:in_fire", "inFire", 0.1f, "burning"),
+            damage("minecraft:in_wall", "inWall", 0),
+            damage("minecraft:indirect_magic", "indirectMagic", 0),
+            damage("minecraft:lava", "lava", 0.1f, "burning"),
+            damage("minecraft:lightning_bolt", "lightningBolt", 0.1f),
+            damage("minecraft:magic", "magic", 0),
+            damage("minecraft:mob_attack", "mob", 0.1f),
+            damage("minecraft:mob_attack_no_aggro", "mob", 0.1f),
+            damage("minecraft:mob_projectile", "mob", 0.1f),
+            damage("minecraft:on_fire", "onFire", 0, "burning"),
+            damage("minecraft:out_of_world", "outOfWorld", 0),
+            damage("minecraft:outside_border", "outsideBorder", 0),
+            damage("minecraft:player_attack", "player", 0.1f),
+            Map.entry("minecraft:player_explosion",
+                    new DamageType("explosion.player", Scaling.ALWAYS, 0.1f, null, null)),
+            Map.entry("minecraft:sonic_boom", new DamageType("sonic_boom", Scaling.ALWAYS, 0, null, null)),
+            damage("minecraft:stalagmite", "stalagmite", 0),
+            damage("minecraft:starve", "starve", 0),
+            damage("minecraft:sting", "sting", 0.1f),
+            damage("minecraft:sweet_berry_bush", "sweetBerryBush", 0.1f, "poking"),
+            damage("minecraft:thorns", "thorns", 0.1f, "thorns"),
+            damage("minecraft:thrown", "thrown", 0.1f),
+            damage("minecraft:trident", "trident", 0.1f),
+            damage("minecraft:unattributed_fireball", "onFire", 0.1f, "burning"),
+            damage("minecraft:wither", "wither", 0),
+            damage("minecraft:wither_skull", "witherSkull", 0.1f)
+    );
+
+    private static Map.Entry<String, DamageType> damage(String name, String messageId, float exhaustion) {
+        return damage(name, messageId, exhaustion, null);
+    }
+
+    private static Map.Entry<String, DamageType> damage(String name, String messageId, float exhaustion,
+                                                        String effects) {
+        return Map.entry(name, new DamageType(messageId, Scaling.WHEN_CAUSED_BY_LIVING_NON_PLAYER, exhaustion,
+                effects, null));
+    }
+
+    @Override
+    public void write(NbtWriter writer) {
+        writeString(writer, "message_id", messageId);
+        writeString(writer, "scaling", scaling.id);
+        writeFloat(writer, "exhaustion", exhaustion);
+        if (effects != null) writeString(writer, "effects", effects);
+        if (deathMessageType != null) writeString(writer, "death_message_type", deathMessageType);
+    }
+
+    public enum Scaling {
+        NEVER("never"),
+        WHEN_CAUSED_BY_LIVING_NON_PLAYER("when_caused_by_living_non_player"),
+        ALWAYS("always");
+
+        private final String id;
+
+        Scaling(String id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.registry;
+
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+
+import java.util.OptionalLong;
+
+import static io.github.madethoughts.hope.registry.NbtFields.*;
+
+/**
+ * The properties of a dimension, see the "dimension_type" registry.
+ * The monster spawn light level is always written as uniform distribution, a constant level has min = max.
+ */
+public record DimensionType(
+        OptionalLong fixedTime,
+        boolean hasSkylight,
+        boolean hasCeiling,
+        boolean ultrawarm,
+        boolean natural,
+        double coordinateScale,
+        boolean bedWorks,
+        boolean respawnAnchorWorks,
+        int minY,
+        int height,
+        int logicalHeight,
+        String infiniburn,
+        String effects,
+        float ambientLight,
+        boolean piglinSafe,
+        boolean hasRaids,
+        int monsterSpawnLightLevelMin,
+        int monsterSpawnLightLevelMax,
+        int monsterSpawnBlockLightLimit
+) implements RegistryElement {
+
+    public static final DimensionType OVERWORLD = new DimensionType(OptionalLong.empty(), true, false, false, true,
+            1, true, false, -64, 384, 384, "#minecraft:infiniburn_overworld", "minecraft:overworld", 0, false, true,
+            0, 7, 0
+    );
+    public static final DimensionType THE_NETHER = new DimensionType(OptionalLong.of(18000), false, true, true, false,
+            8, false, true, 0, 256, 128, "#minecraft:infiniburn_nether", "minecraft:the_nether", 0.1f, true, false,
+            7, 7, 15
+    );
+    public static final DimensionType THE_END = new DimensionType(OptionalLong.of(6000), false, false, false, false,
+            1, false, false, 0, 256, 256, "#minecraft:infiniburn_end", "minecraft:the_end", 0, false, true,
+            0, 7, 0
+    );
+
+    @Override
+    public void write(NbtWriter writer) {
+        if (fixedTime.isPresent()) {
+            writer.writeHeader(Type.LONG, "fixed_time");
+            writer.writeLong(fixedTime.getAsLong());
+        }
+        writeBoolean(writer, "has_skylight", hasSkylight);
+        writeBoolean(writer, "has_ceiling", hasCeiling);
+        writeBoolean(writer, "ultrawarm", ultrawarm);
+        writeBoolean(writer, "natural", natural);
+        writeDouble(writer, "coordinate_scale", coordinateScale);
+        writeBoolean(writer, "bed_works", bedWorks);
+        writeBoolean(writer, "respawn_anchor_works", respawnAnchorWorks);
+        writeInt(writer, "min_y", minY);
+        writeInt(writer, "height", height);
+        writeInt(writer, "logical_height", logicalHeight);
+        writeString(writer, "infiniburn", infiniburn);
+        writeString(writer, "effects", effects);
+        writeFloat(writer, "ambient_light", ambientLight);
+        writeBoolean(writer, "piglin_safe", piglinSafe);
+        writeBoolean(writer, "has_raids", hasRaids);
+
+        writer.writeHeader(Type.COMPOUND, "monster_spawn_light_level");
+        writeString(writer, "type", "minecraft:uniform");
+        writer.writeHeader(Type.COMPOUND, "value");
+        writeInt(writer, "min_inclusive", monsterSpawnLightLevelMin);
+        writeInt(writer, "max_inclusive", monsterSpawnLightLevelMax);
+        writer.writeEnd();
+        writer.writeEnd();
+
+        writeInt(writer, "monster_spawn_block_light_limit", monsterSpawnBlockLightLimit);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.registry;
+
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+
+/**
+ * Writes named primitive tags, shared by the registry elements.
+ */
+final class NbtFields {
+
+    private NbtFields() {}
+
+    static void writeString(NbtWriter writer, String name, String value) {
+        writer.writeHeader(Type.STRING, name);
+        writer.writeString(value);
+    }
+
+    static void writeBoolean(NbtWriter writer, String name, boolean value) {
+        writer.writeHeader(Type.BYTE, name);
+        writer.writeByte((byte) (value ? 1 : 0));
+    }
+
+    static void writeInt(NbtWriter writer, String name, int value) {
+        writer.writeHeader(Type.INT, name);
+        writer.writeInt(value);
+    }
+
+    static void writeFloat(NbtWriter writer, String name, float value) {
+        writer.writeHeader(Type.FLOAT, name);
+        writer.writeFloat(value);
+    }
+
+    static void writeDouble(NbtWriter writer, String name, double value) {
+        writer.writeHeader(Type.DOUBLE, name);
+        writer.writeDouble(value);
+    }
+}
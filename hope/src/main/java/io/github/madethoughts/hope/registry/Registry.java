@@ -0,0 +1,112 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.registry;
+
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+
+import static io.github.madethoughts.hope.registry.NbtFields.writeInt;
+import static io.github.madethoughts.hope.registry.NbtFields.writeString;
+
+/**
+ * A registry synchronized with clients. The ids of the entries are their indices in iteration order.
+ *
+ * @param type    the registry's key, e.g. "minecraft:dimension_type"
+ * @param entries the elements by their name
+ */
+public record Registry(
+        String type,
+        SequencedMap<String, ? extends RegistryElement> entries
+) {
+
+    /**
+     * The registries of vanilla 1.20.4 which clients need to join. Armor trims aren't supported, so their registries
+     * are empty.
+     */
+    public static final List<Registry> VANILLA = List.of(
+            new Registry("minecraft:dimension_type", ordered(
+                    Map.entry("minecraft:overworld", DimensionType.OVERWORLD),
+                    Map.entry("minecraft:the_nether", DimensionType.THE_NETHER),
+                    Map.entry("minecraft:the_end", DimensionType.THE_END)
+            )),
+            new Registry("minecraft:worldgen/biome", ordered(Map.entry("minecraft:plains", Biome.PLAINS))),
+            new Registry("minecraft:chat_type", ordered(
+                    Map.entry("minecraft:chat", ChatType.CHAT),
+                    Map.entry("minecraft:emote_command", ChatType.EMOTE_COMMAND),
+                    Map.entry("minecraft:msg_command_incoming", ChatType.MSG_COMMAND_INCOMING),
+                    Map.entry("minecraft:msg_command_outgoing", ChatType.MSG_COMMAND_OUTGOING),
+                    Map.entry("minecraft:say_command", ChatType.SAY_COMMAND),
+                    Map.entry("minecraft:team_msg_command_incoming", ChatType.TEAM_MSG_COMMAND_INCOMING),
+                    Map.entry("minecraft:team_msg_command_outgoing", ChatType.TEAM_MSG_COMMAND_OUTGOING)
+            )),
+            new Registry("minecraft:damage_type", DamageType.VANILLA),
+            new Registry("minecraft:trim_pattern", ordered()),
+            new Registry("minecraft:trim_material", ordered())
+    );
+
+    // the vanilla codec takes roughly 10 KB
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    /**
+     * Serializes the registries as the network nbt of the registry data packet.
+     *
+     * @param registries the registries
+     * @return the nbt data
+     */
+    public static byte[] serialize(List<Registry> registries) {
+        var writer = NbtWriter.growable(INITIAL_CAPACITY);
+        writer.writeRoot(Mode.NETWORK, "");
+        for (var registry : registries) registry.write(writer);
+        writer.writeEnd();
+        return writer.toByteArray();
+    }
+
+    private void write(NbtWriter writer) {
+        writer.writeHeader(Type.COMPOUND, type);
+        writeString(writer, "type", type);
+
+        writer.writeHeader(Type.LIST, "value");
+        writer.writeListHeader(Type.COMPOUND, entries.size());
+        var id = 0;
+        for (var entry : entries.entrySet()) {
+            writeString(writer, "name", entry.getKey());
+            writeInt(writer, "id", id++);
+            writer.writeHeader(Type.COMPOUND, "element");
+            entry.getValue().write(writer);
+            writer.writeEnd();
+            writer.writeEnd();
+        }
+
+        writer.writeEnd();
+    }
+
+    @SafeVarargs
+    static <T> SequencedMap<String, T> ordered(Map.Entry<String, T>... entries) {
+        var map = new LinkedHashMap<String, T>();
+        for (var entry : entries) map.put(entry.getKey(), entry.getValue());
+        return Collections.unmodifiableSequencedMap(map);
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.registry;
+
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+
+/**
+ * An element of a synchronized registry, written as the "element" compound of its registry entry.
+ */
+public sealed interface RegistryElement permits Biome, ChatType, DamageType, DimensionType {
+
+    /**
+     * Writes the tags of this element into the already opened element compound.
+     *
+     * @param writer the writer
+     */
+    void write(NbtWriter writer);
+}
@@ -0,0 +1,113 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.text;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A MiniMessage string parsed once into a reusable component skeleton.
+ * Placeholders are parsed as marker components, so rendering only has to substitute them with the given arguments
+ * instead of parsing the whole string again. Subtrees without placeholders are shared between all rendered
+ * components.
+ * Placeholders are only supported in the text, not inside hover or click events.
+ * <p>
+ * Templates without placeholders always render the same component instance, which therefore can be pinned in the
+ * {@link io.github.madethoughts.hope.json.serializers.ComponentJsonCache}. Renders with constant arguments are
+ * equal to each other and hit its least recently used cache.
+ */
+public final class MessageTemplate {
+
+    private static final String MARKER_PREFIX = "hope.template.placeholder.";
+
+    private final Component skeleton;
+    private final int placeholders;
+
+    private MessageTemplate(Component skeleton, int placeholders) {
+        this.skeleton = skeleton;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Parses a MiniMessage string into a template.
+     *
+     * @param miniMessage  the MiniMessage instance used for parsing
+     * @param template     the MiniMessage string
+     * @param placeholders the names of the placeholders, e.g. "player" for &lt;player&gt;. The order determines
+     *                     the order of the arguments passed to {@link MessageTemplate#render(ComponentLike...)}
+     * @return the compiled template
+     */
+    public static MessageTemplate compile(MiniMessage miniMessage, String template, String... placeholders) {
+        var resolvers = new TagResolver[placeholders.length];
+        for (var i = 0; i < placeholders.length; i++) {
+            resolvers[i] = Placeholder.component(placeholders[i], Component.translatable(MARKER_PREFIX + i));
+        }
+        return new MessageTemplate(
+                miniMessage.deserialize(template, TagResolver.resolver(resolvers)),
+                placeholders.length
+        );
+    }
+
+    private static Component substitute(Component component, ComponentLike[] arguments) {
+        var children = component.children();
+        List<Component> rendered = null;
+        for (var i = 0; i < children.size(); i++) {
+            var child = children.get(i);
+            var renderedChild = substitute(child, arguments);
+            // only copy the children if one of them actually changed
+            if (rendered == null && renderedChild != child) rendered = new ArrayList<>(children.subList(0, i));
+            if (rendered != null) rendered.add(renderedChild);
+        }
+
+        if (component instanceof TranslatableComponent marker && marker.key().startsWith(MARKER_PREFIX)) {
+            var key = marker.key();
+            var index = Integer.parseInt(key, MARKER_PREFIX.length(), key.length(), 10);
+            var argument = arguments[index].asComponent().applyFallbackStyle(marker.style());
+            if (children.isEmpty()) return argument;
+
+            var argumentChildren = new ArrayList<>(argument.children());
+            argumentChildren.addAll(rendered != null ? rendered : children);
+            return argument.children(argumentChildren);
+        }
+        return rendered != null ? component.children(rendered) : component;
+    }
+
+    /**
+     * Renders this template by substituting the placeholders.
+     *
+     * @param arguments the placeholder values, in the order of the placeholder names given at compilation
+     * @return the rendered component
+     * @throws IllegalArgumentException if the amount of arguments doesn't match the amount of placeholders
+     */
+    public Component render(ComponentLike... arguments) {
+        if (arguments.length != placeholders) {
+            throw new IllegalArgumentException("Expected %s arguments, but got %s"
+                    .formatted(placeholders, arguments.length));
+        }
+        if (placeholders == 0) return skeleton;
+        return substitute(skeleton, arguments);
+    }
+}
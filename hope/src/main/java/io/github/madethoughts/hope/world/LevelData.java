@@ -0,0 +1,110 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.world;
+
+import io.github.madethoughts.hope.nbt.Compression;
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.codec.NbtName;
+import io.github.madethoughts.hope.nbt.codec.NbtRecord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The level.dat of a world, read straight into records by the generated {@link LevelDataCodec} without building a
+ * tag tree. Only the values used by the server are mapped, all other tags are skipped while reading.
+ *
+ * @param data the world's properties
+ */
+@NbtRecord
+public record LevelData(
+        @NbtName("Data") Data data
+) {
+
+    /**
+     * @param file the gzip compressed level.dat
+     * @return the level data
+     * @throws IOException if the file can't be read
+     */
+    public static LevelData load(Path file) throws IOException {
+        return LevelDataCodec.INSTANCE.readRoot(Mode.FILE, Compression.GZIP, ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    /**
+     * Components of missing tags are null, or zero for primitives.
+     */
+    @NbtRecord
+    public record Data(
+            @NbtName("DataVersion") int dataVersion,
+            @NbtName("LevelName") String levelName,
+            @NbtName("Version") Version version,
+            @NbtName("GameType") int gameType,
+            @NbtName("Difficulty") byte difficulty,
+            boolean hardcore,
+            boolean allowCommands,
+            @NbtName("SpawnX") int spawnX,
+            @NbtName("SpawnY") int spawnY,
+            @NbtName("SpawnZ") int spawnZ,
+            @NbtName("SpawnAngle") float spawnAngle,
+            @NbtName("Time") long time,
+            @NbtName("DayTime") long dayTime,
+            @NbtName("LastPlayed") long lastPlayed,
+            boolean raining,
+            int rainTime,
+            boolean thundering,
+            int thunderTime,
+            @NbtName("ServerBrands") List<String> serverBrands,
+            @NbtName("DataPacks") DataPacks dataPacks,
+            @NbtName("WorldGenSettings") WorldGenSettings worldGenSettings,
+            @NbtName("WanderingTraderId") int[] wanderingTraderId
+    ) {}
+
+    /**
+     * @param id       the data version
+     * @param name     the game version's name
+     * @param series   the series, "main" for release versions
+     * @param snapshot whether the world was last played in a snapshot
+     */
+    @NbtRecord
+    public record Version(
+            @NbtName("Id") int id,
+            @NbtName("Name") String name,
+            @NbtName("Series") String series,
+            @NbtName("Snapshot") boolean snapshot
+    ) {}
+
+    @NbtRecord
+    public record DataPacks(
+            @NbtName("Enabled") List<String> enabled,
+            @NbtName("Disabled") List<String> disabled
+    ) {}
+
+    /**
+     * The dimensions' generator settings aren't mapped.
+     */
+    @NbtRecord
+    public record WorldGenSettings(
+            long seed,
+            @NbtName("generate_features") boolean generateFeatures,
+            @NbtName("bonus_chest") boolean bonusChest
+    ) {}
+}
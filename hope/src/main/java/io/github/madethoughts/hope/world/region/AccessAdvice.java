@@ -0,0 +1,111 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.world.region;
+
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Hints about how a mapped region will be accessed, passed to the kernel by {@code madvise}. Advising is best effort
+ * and does nothing on platforms without {@code madvise}.
+ */
+public enum AccessAdvice {
+    /**
+     * No special treatment, the default.
+     */
+    NORMAL(0),
+
+    /**
+     * Pages are accessed in random order, so the kernel shouldn't read ahead. Fits region files, of which only some
+     * chunks are loaded.
+     */
+    RANDOM(1),
+
+    /**
+     * Pages are accessed in order, so the kernel should read ahead aggressively. Fits converting or copying whole
+     * region files.
+     */
+    SEQUENTIAL(2),
+
+    /**
+     * Pages will be accessed soon, so the kernel should start reading them in the background. Fits chunks that are
+     * about to be loaded, like the ones in front of a moving player.
+     */
+    WILL_NEED(3),
+
+    /**
+     * Pages won't be accessed soon, so the kernel may free them.
+     */
+    DONT_NEED(4);
+
+    // the values are the same on linux and macos
+    private final int value;
+
+    AccessAdvice(int value) {
+        this.value = value;
+    }
+
+    /**
+     * Advises the kernel about the pages of the given part of a mapping.
+     *
+     * @param mapping the mapped segment
+     * @param offset  the offset of the part
+     * @param length  the length of the part
+     */
+    void advise(MemorySegment mapping, long offset, long length) {
+        if (Native.MADVISE == null || length == 0) return;
+        // madvise needs a page aligned address
+        var address = mapping.address() + offset;
+        var aligned = address & -Native.PAGE_SIZE;
+        try {
+            // failures are ignored, the advice is only a hint
+            var _ = (int) Native.MADVISE.invokeExact(MemorySegment.ofAddress(aligned), address - aligned + length,
+                    value);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    // initialized on first use, so the restricted linker is only used if advice is given
+    private static final class Native {
+        private static final Linker LINKER = Linker.nativeLinker();
+        private static final MethodHandle MADVISE = downcall("madvise", FunctionDescriptor.of(
+                ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT));
+        private static final long PAGE_SIZE = pageSize();
+
+        private static MethodHandle downcall(String name, FunctionDescriptor descriptor) {
+            return LINKER.defaultLookup().find(name)
+                    .map(symbol -> LINKER.downcallHandle(symbol, descriptor))
+                    .orElse(null);
+        }
+
+        private static long pageSize() {
+            var getPageSize = downcall("getpagesize", FunctionDescriptor.of(ValueLayout.JAVA_INT));
+            if (getPageSize == null) return 4096;
+            try {
+                return (int) getPageSize.invokeExact();
+            } catch (Throwable e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
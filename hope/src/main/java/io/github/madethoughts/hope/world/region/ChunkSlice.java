@@ -0,0 +1,47 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.world.region;
+
+import io.github.madethoughts.hope.nbt.Compression;
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.deserialization.Deserializer;
+import io.github.madethoughts.hope.nbt.tree.RootCompound;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * The stored data of a chunk, sliced out of the mapped region file without copying.
+ *
+ * @param compression the compression of the data
+ * @param data        the compressed nbt, only valid as long as the region file's mapping is reachable
+ */
+public record ChunkSlice(
+        Compression compression,
+        MemorySegment data
+) {
+
+    /**
+     * Decompresses and deserializes the chunk's nbt.
+     *
+     * @return the chunk's root compound
+     */
+    public RootCompound deserialize() {
+        return Deserializer.deserialize(Mode.FILE, compression, data);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.world.region;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the most recently used region files of a dimension mapped. Evicted region files aren't unmapped explicitly,
+ * their mapping is released once no chunk slice of them is reachable anymore, so eviction never invalidates slices
+ * still being decoded.
+ * <pre>{@code
+ * var regions = new RegionCache(worldDirectory.resolve("region"), 64);
+ * Optional<RootCompound> chunk = regions.chunk(x, z).map(ChunkSlice::deserialize);
+ * }</pre>
+ * The cache is thread safe.
+ */
+public final class RegionCache {
+    private final Path directory;
+    private final AccessAdvice advice;
+    private final Map<Long, RegionFile> regions;
+
+    /**
+     * @param directory  the region directory of the dimension
+     * @param maxRegions the amount of region files to keep mapped
+     */
+    public RegionCache(Path directory, int maxRegions) {
+        this(directory, maxRegions, AccessAdvice.RANDOM);
+    }
+
+    /**
+     * @param directory  the region directory of the dimension
+     * @param maxRegions the amount of region files to keep mapped
+     * @param advice     the advice given for newly mapped region files
+     */
+    public RegionCache(Path directory, int maxRegions, AccessAdvice advice) {
+        if (maxRegions < 1) throw new IllegalArgumentException("At least one region has to be cached");
+        this.directory = directory;
+        this.advice = advice;
+        regions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RegionFile> eldest) {
+                return size() > maxRegions;
+            }
+        };
+    }
+
+    /**
+     * @param regionX the x coordinate of the region
+     * @param regionZ the z coordinate of the region
+     * @return the region file, or an empty optional if the region wasn't generated yet
+     * @throws IOException if the region file can't be mapped
+     */
+    public synchronized Optional<RegionFile> region(int regionX, int regionZ) throws IOException {
+        var key = key(regionX, regionZ);
+        var region = regions.get(key);
+        if (region != null) return Optional.of(region);
+
+        // missing regions aren't cached, they may be created by a writer at any time
+        var opened = RegionFile.open(directory, regionX, regionZ);
+        opened.ifPresent(file -> {
+            if (advice != AccessAdvice.NORMAL) file.advise(advice);
+            regions.put(key, file);
+        });
+        return opened;
+    }
+
+    /**
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkZ the z coordinate of the chunk
+     * @return the chunk's data, or an empty optional if the chunk isn't stored
+     * @throws IOException if the region file can't be mapped or the chunk is malformed
+     */
+    public Optional<ChunkSlice> chunk(int chunkX, int chunkZ) throws IOException {
+        var region = region(chunkX >> 5, chunkZ >> 5);
+        return region.isPresent() ? region.get().chunk(chunkX, chunkZ) : Optional.empty();
+    }
+
+    /**
+     * Advises the kernel that the chunk will be read soon, so it's paged in by the time it's loaded.
+     *
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkZ the z coordinate of the chunk
+     * @throws IOException if the region file can't be mapped
+     */
+    public void prefetch(int chunkX, int chunkZ) throws IOException {
+        region(chunkX >> 5, chunkZ >> 5).ifPresent(region -> region.advise(chunkX, chunkZ, AccessAdvice.WILL_NEED));
+    }
+
+    /**
+     * Drops the mapping of a region, so the next access maps the file again. Has to be called after the file
+     * was grown or its header changed.
+     *
+     * @param regionX the x coordinate of the region
+     * @param regionZ the z coordinate of the region
+     */
+    public synchronized void invalidate(int regionX, int regionZ) {
+        regions.remove(key(regionX, regionZ));
+    }
+
+    private static long key(int regionX, int regionZ) {
+        return (long) regionX << 32 | (regionZ & 0xFFFFFFFFL);
+    }
+}
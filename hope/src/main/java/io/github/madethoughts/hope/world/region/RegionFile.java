@@ -0,0 +1,247 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.world.region;
+
+import io.github.madethoughts.hope.nbt.Compression;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * A read-only view of an anvil region file ({@code r.<x>.<z>.mca}), which stores 32x32 chunks.
+ * <p>
+ * The file starts with a header of two sectors of 4 KiB: the locations of the chunks (3 bytes of sector offset and
+ * 1 byte of sector count each) followed by their last modification times in seconds. Each stored chunk starts
+ * with its length and compression, followed by its data. Chunks that don't fit into 255 sectors are stored in
+ * external {@code c.<x>.<z>.mcc} files next to the region file, which is marked by the high bit of the compression.
+ * <p>
+ * The whole file is mapped into memory, the header and chunks are read in place. The mapping is released once the
+ * region file and all slices of it are unreachable, so slices stay valid even after the region file was evicted
+ * from a {@link RegionCache}. Region files are immutable and can be shared between threads.
+ */
+public final class RegionFile {
+    public static final int SECTOR_SIZE = 4096;
+    public static final int CHUNKS = 32 * 32;
+    public static final int HEADER_SIZE = 2 * SECTOR_SIZE;
+
+    static final int EXTERNAL_FLAG = 0x80;
+    // the length field and the compression byte
+    static final int CHUNK_HEADER_SIZE = Integer.BYTES + 1;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final Path path;
+    private final int regionX;
+    private final int regionZ;
+    private final MemorySegment mapping;
+
+    private RegionFile(Path path, int regionX, int regionZ, MemorySegment mapping) {
+        this.path = path;
+        this.regionX = regionX;
+        this.regionZ = regionZ;
+        this.mapping = mapping;
+    }
+
+    /**
+     * Maps the region file of the given region in the directory.
+     *
+     * @param directory the region directory of a dimension
+     * @param regionX   the x coordinate of the region
+     * @param regionZ   the z coordinate of the region
+     * @return the region file, or an empty optional if the region wasn't generated yet
+     * @throws IOException if the file can't be mapped
+     */
+    public static Optional<RegionFile> open(Path directory, int regionX, int regionZ) throws IOException {
+        var path = directory.resolve(fileName(regionX, regionZ));
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // files without a complete header are treated as empty, like vanilla does
+            var size = channel.size();
+            var mapping = size < HEADER_SIZE
+                    ? MemorySegment.NULL
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, size, Arena.ofAuto());
+            return Optional.of(new RegionFile(path, regionX, regionZ, mapping));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param regionX the x coordinate of the region
+     * @param regionZ the z coordinate of the region
+     * @return the name of the region's file
+     */
+    public static String fileName(int regionX, int regionZ) {
+        return "r.%s.%s.mca".formatted(regionX, regionZ);
+    }
+
+    /**
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkZ the z coordinate of the chunk
+     * @return the name of the chunk's external file
+     */
+    public static String externalFileName(int chunkX, int chunkZ) {
+        return "c.%s.%s.mcc".formatted(chunkX, chunkZ);
+    }
+
+    /**
+     * @param chunkX the x coordinate of the chunk, in the world or in the region
+     * @param chunkZ the z coordinate of the chunk, in the world or in the region
+     * @return the chunk's index in the header
+     */
+    public static int index(int chunkX, int chunkZ) {
+        return (chunkX & 31) | (chunkZ & 31) << 5;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int regionX() {
+        return regionX;
+    }
+
+    public int regionZ() {
+        return regionZ;
+    }
+
+    /**
+     * @param chunkX the x coordinate of the chunk, in the world or in the region
+     * @param chunkZ the z coordinate of the chunk, in the world or in the region
+     * @return whether the chunk is stored in this region file
+     */
+    public boolean contains(int chunkX, int chunkZ) {
+        return location(index(chunkX, chunkZ)) != 0;
+    }
+
+    /**
+     * @param chunkX the x coordinate of the chunk, in the world or in the region
+     * @param chunkZ the z coordinate of the chunk, in the world or in the region
+     * @return the time the chunk was last saved at, in seconds since the epoch, or 0 if it isn't stored
+     */
+    public int timestamp(int chunkX, int chunkZ) {
+        if (mapping.byteSize() == 0) return 0;
+        return mapping.get(INT, SECTOR_SIZE + index(chunkX, chunkZ) * Integer.BYTES);
+    }
+
+    /**
+     * Slices the stored data of a chunk out of the mapping. Chunks in external files are mapped on demand.
+     *
+     * @param chunkX the x coordinate of the chunk, in the world or in the region
+     * @param chunkZ the z coordinate of the chunk, in the world or in the region
+     * @return the chunk's data, or an empty optional if the chunk isn't stored
+     * @throws RegionFormatException if the chunk's location or header is malformed
+     * @throws IOException           if the chunk's external file can't be mapped
+     */
+    public Optional<ChunkSlice> chunk(int chunkX, int chunkZ) throws IOException {
+        var location = location(index(chunkX, chunkZ));
+        if (location == 0) return Optional.empty();
+
+        var start = (long) (location >>> 8) * SECTOR_SIZE;
+        var sectors = location & 0xFF;
+        if (start < HEADER_SIZE || start + (long) sectors * SECTOR_SIZE > mapping.byteSize()) {
+            throw new RegionFormatException("Chunk %s, %s of %s is out of bounds".formatted(chunkX, chunkZ, path));
+        }
+
+        var length = mapping.get(INT, start);
+        var type = mapping.get(ValueLayout.JAVA_BYTE, start + Integer.BYTES) & 0xFF;
+        var compression = compression(type & ~EXTERNAL_FLAG);
+        if ((type & EXTERNAL_FLAG) != 0) {
+            return Optional.of(new ChunkSlice(compression, mapExternal(chunkX, chunkZ)));
+        }
+        // the length includes the compression byte
+        if (length < 1 || length > (long) sectors * SECTOR_SIZE - Integer.BYTES) {
+            throw new RegionFormatException("Chunk %s, %s of %s has an invalid length of %s"
+                    .formatted(chunkX, chunkZ, path, length));
+        }
+        return Optional.of(new ChunkSlice(compression, mapping.asSlice(start + CHUNK_HEADER_SIZE, length - 1)));
+    }
+
+    /**
+     * Advises the kernel about upcoming accesses to the whole file.
+     *
+     * @param advice the advice
+     */
+    public void advise(AccessAdvice advice) {
+        advice.advise(mapping, 0, mapping.byteSize());
+    }
+
+    /**
+     * Advises the kernel about upcoming accesses to a chunk, e.g. to read it in ahead of loading it.
+     *
+     * @param chunkX the x coordinate of the chunk, in the world or in the region
+     * @param chunkZ the z coordinate of the chunk, in the world or in the region
+     * @param advice the advice
+     */
+    public void advise(int chunkX, int chunkZ, AccessAdvice advice) {
+        var location = location(index(chunkX, chunkZ));
+        var start = (long) (location >>> 8) * SECTOR_SIZE;
+        var length = (long) (location & 0xFF) * SECTOR_SIZE;
+        if (location == 0 || start + length > mapping.byteSize()) return;
+        advice.advise(mapping, start, length);
+    }
+
+    private int location(int index) {
+        if (mapping.byteSize() == 0) return 0;
+        return mapping.get(INT, (long) index * Integer.BYTES);
+    }
+
+    private MemorySegment mapExternal(int chunkX, int chunkZ) throws IOException {
+        // the external file is named after the chunk's world coordinates
+        var worldX = regionX << 5 | (chunkX & 31);
+        var worldZ = regionZ << 5 | (chunkZ & 31);
+        var external = path.resolveSibling(externalFileName(worldX, worldZ));
+        try (var channel = FileChannel.open(external, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto());
+        } catch (NoSuchFileException e) {
+            throw new RegionFormatException("Missing external file %s".formatted(external));
+        }
+    }
+
+    static Compression compression(int type) throws RegionFormatException {
+        return switch (type) {
+            case 1 -> Compression.GZIP;
+            case 2 -> Compression.ZLIB;
+            case 3 -> Compression.NONE;
+            case 4 -> Compression.LZ4;
+            default -> throw new RegionFormatException("Unknown chunk compression %s".formatted(type));
+        };
+    }
+
+    static int compressionType(Compression compression) {
+        return switch (compression) {
+            case GZIP -> 1;
+            case ZLIB -> 2;
+            case NONE -> 3;
+            case LZ4 -> 4;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "RegionFile[path=%s]".formatted(path);
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.world.region;
+
+import io.github.madethoughts.hope.nbt.Compression;
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.serialization.Serializer;
+import io.github.madethoughts.hope.nbt.tree.RootCompound;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Saves chunks into the region files of a dimension without blocking the caller.
+ * <p>
+ * Saved chunks are collected per region file and written in batches by a virtual thread, with one batch of a
+ * region in flight at a time. Saving a chunk again before its previous save was written only writes the newer
+ * state. Each batch serializes and compresses its chunks, writes them into newly allocated sectors by positional
+ * writes and only then updates the header, so a crash never leaves the header pointing at partially written data.
+ * The previous sectors of the chunks are reused by later batches. Chunks that don't fit into 255 sectors are written
+ * to external {@code .mcc} files. Region files are only kept open while they have pending saves.
+ * <p>
+ * Slices read from a {@link RegionCache} may be overwritten once the sectors of their chunk are reused, so chunks
+ * mustn't be read while they are being saved. The writer is thread safe.
+ */
+public final class RegionWriter implements AutoCloseable {
+    // the sector count of a location is a single byte
+    private static final int MAX_SECTORS = 0xFF;
+
+    private static final Logger log = LoggerFactory.getLogger(RegionWriter.class);
+
+    private final Path directory;
+    private final boolean fsync;
+    private final RegionCache cache;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // only regions with pending saves, guarded by this
+    private final Map<Long, Region> regions = new HashMap<>();
+    private boolean closed = false;
+
+    /**
+     * @param directory the region directory of the dimension
+     * @param fsync     whether each batch is forced to the storage device before its saves complete, trading
+     *                  throughput for durability
+     */
+    public RegionWriter(Path directory, boolean fsync) {
+        this(directory, fsync, null);
+    }
+
+    /**
+     * @param directory the region directory of the dimension
+     * @param fsync     whether each batch is forced to the storage device before its saves complete, trading
+     *                  throughput for durability
+     * @param cache     the cache reading the same directory, whose regions are invalidated after they were written,
+     *                  or null
+     */
+    public RegionWriter(Path directory, boolean fsync, RegionCache cache) {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.cache = cache;
+    }
+
+    /**
+     * Schedules a chunk to be saved. The chunk is serialized by the writer later on, so it must not be modified
+     * afterward; pass a copy if it's still in use.
+     *
+     * @param chunkX      the x coordinate of the chunk
+     * @param chunkZ      the z coordinate of the chunk
+     * @param compression the compression the chunk is stored with
+     * @param chunk       the chunk's nbt
+     * @return a future completing once the chunk, or a newer save of it, was written
+     * @throws IllegalStateException if the writer is closed
+     */
+    public CompletableFuture<Void> save(int chunkX, int chunkZ, Compression compression, RootCompound chunk) {
+        var future = new CompletableFuture<Void>();
+        // scheduled under the lock, so a concurrent close can't shut the executor down in between
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("The region writer is closed");
+            var regionX = chunkX >> 5;
+            var regionZ = chunkZ >> 5;
+            var region = regions.computeIfAbsent(key(regionX, regionZ), _ -> new Region(regionX, regionZ));
+            if (region.enqueue(new DirtyChunk(chunkX, chunkZ, compression, chunk, future))) {
+                executor.execute(region::flush);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Waits for all scheduled saves to be written. Region files are closed once they have no pending saves left.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        executor.close();
+    }
+
+    private static long key(int regionX, int regionZ) {
+        return (long) regionX << 32 | (regionZ & 0xFFFFFFFFL);
+    }
+
+    private record DirtyChunk(
+            int chunkX,
+            int chunkZ,
+            Compression compression,
+            RootCompound root,
+            CompletableFuture<Void> future
+    ) {}
+
+    // the data of a chunk in a batch, ready to be written
+    private record Serialized(
+            DirtyChunk chunk,
+            int index,
+            int location,
+            ByteBuffer data,
+            boolean external
+    ) {}
+
+    private final class Region {
+        private final int regionX;
+        private final int regionZ;
+
+        // guarded by this
+        private Map<Integer, DirtyChunk> pending = new HashMap<>();
+        private boolean scheduled = false;
+
+        // only accessed by the single thread flushing the region
+        private FileChannel channel;
+        private SectorBitmap sectors;
+        private final int[] locations = new int[RegionFile.CHUNKS];
+        private final int[] timestamps = new int[RegionFile.CHUNKS];
+
+        private Region(int regionX, int regionZ) {
+            this.regionX = regionX;
+            this.regionZ = regionZ;
+        }
+
+        /**
+         * @return whether the region has to be scheduled for flushing
+         */
+        private synchronized boolean enqueue(DirtyChunk chunk) {
+            var replaced = pending.put(RegionFile.index(chunk.chunkX(), chunk.chunkZ()), chunk);
+            // the older state is superseded, so its save completes with the newer one
+            if (replaced != null) chunk.future().whenComplete((_, e) -> {
+                if (e != null) replaced.future().completeExceptionally(e);
+                else replaced.future().complete(null);
+            });
+            if (scheduled) return false;
+            scheduled = true;
+            return true;
+        }
+
+        private Collection<DirtyChunk> drain() {
+            // idle regions are removed together with being unscheduled, so no save can be enqueued into them anymore
+            synchronized (RegionWriter.this) {
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        scheduled = false;
+                        regions.remove(key(regionX, regionZ));
+                        return null;
+                    }
+                    var batch = pending.values();
+                    pending = new HashMap<>();
+                    return batch;
+                }
+            }
+        }
+
+        private void flush() {
+            Collection<DirtyChunk> batch;
+            while ((batch = drain()) != null) {
+                try {
+                    var written = write(batch);
+                    for (var chunk : written) chunk.future().complete(null);
+                } catch (IOException | RuntimeException e) {
+                    for (var chunk : batch) chunk.future().completeExceptionally(e);
+                }
+            }
+
+            // the region is reopened by the next save, so only regions with pending saves keep their file open
+            if (channel == null) return;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close region file {}", RegionFile.fileName(regionX, regionZ), e);
+            }
+        }
+
+        private List<DirtyChunk> write(Collection<DirtyChunk> batch) throws IOException {
+            open();
+            var timestamp = (int) (System.currentTimeMillis() / 1000);
+            var serialized = new ArrayList<Serialized>(batch.size());
+            var previous = new int[batch.size()];
+            var previousTimestamps = new int[batch.size()];
+            var updated = false;
+            try {
+                for (var chunk : batch) {
+                    try {
+                        serialized.add(serialize(chunk));
+                    } catch (RuntimeException e) {
+                        // a broken chunk doesn't fail the others
+                        chunk.future().completeExceptionally(e);
+                    }
+                }
+                if (serialized.isEmpty()) return List.of();
+
+                for (var chunk : serialized) {
+                    writeFully(chunk.data(), (long) (chunk.location() >>> 8) * RegionFile.SECTOR_SIZE);
+                }
+                // the data has to be durable before the header references it
+                if (fsync) channel.force(true);
+
+                updated = true;
+                for (var i = 0; i < serialized.size(); i++) {
+                    var chunk = serialized.get(i);
+                    previous[i] = locations[chunk.index()];
+                    previousTimestamps[i] = timestamps[chunk.index()];
+                    locations[chunk.index()] = chunk.location();
+                    timestamps[chunk.index()] = timestamp;
+                }
+                writeHeader();
+                if (fsync) channel.force(false);
+            } catch (IOException | RuntimeException e) {
+                // the failed batch keeps the previous sectors, so its new ones would never be freed otherwise
+                if (updated) {
+                    for (var i = 0; i < serialized.size(); i++) {
+                        locations[serialized.get(i).index()] = previous[i];
+                        timestamps[serialized.get(i).index()] = previousTimestamps[i];
+                    }
+                }
+                for (var chunk : serialized) sectors.free(chunk.location());
+                throw e;
+            }
+            for (var i = 0; i < serialized.size(); i++) sectors.free(previous[i]);
+            // the chunks may have been oversized before, which is only cleaned up once the header doesn't need it
+            for (var chunk : serialized) {
+                if (!chunk.external()) Files.deleteIfExists(external(chunk.chunk()));
+            }
+            if (cache != null) cache.invalidate(regionX, regionZ);
+
+            var written = new ArrayList<DirtyChunk>(serialized.size());
+            for (var chunk : serialized) written.add(chunk.chunk());
+            return written;
+        }
+
+        private Serialized serialize(DirtyChunk chunk) throws IOException {
+            var data = Serializer.serialize(Mode.FILE, chunk.compression(), chunk.root());
+            var type = RegionFile.compressionType(chunk.compression());
+            var count = (RegionFile.CHUNK_HEADER_SIZE + data.length + RegionFile.SECTOR_SIZE - 1)
+                        / RegionFile.SECTOR_SIZE;
+
+            var external = count > MAX_SECTORS;
+            ByteBuffer buffer;
+            if (external) {
+                writeExternal(external(chunk), data);
+                // only the header of the chunk is stored in the region file, with a length of the compression byte
+                count = 1;
+                buffer = ByteBuffer.allocate(RegionFile.SECTOR_SIZE)
+                        .putInt(1)
+                        .put((byte) (type | RegionFile.EXTERNAL_FLAG));
+            } else {
+                buffer = ByteBuffer.allocate(count * RegionFile.SECTOR_SIZE)
+                        .putInt(data.length + 1)
+                        .put((byte) type)
+                        .put(data);
+            }
+            // the whole sectors are written, so the file always ends at a sector boundary
+            var start = sectors.allocate(count);
+            return new Serialized(chunk, RegionFile.index(chunk.chunkX(), chunk.chunkZ()), start << 8 | count,
+                    buffer.clear(), external);
+        }
+
+        private Path external(DirtyChunk chunk) {
+            return directory.resolve(RegionFile.externalFileName(chunk.chunkX(), chunk.chunkZ()));
+        }
+
+        private void writeExternal(Path external, byte[] data) throws IOException {
+            // the header may already point at the external file, so it's replaced atomically by a complete one
+            var temporary = external.resolveSibling(external.getFileName() + ".tmp");
+            try (var channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                var buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) channel.write(buffer);
+                if (fsync) channel.force(true);
+            }
+            Files.move(temporary, external, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        private void open() throws IOException {
+            if (channel != null) return;
+            Files.createDirectories(directory);
+            channel = FileChannel.open(directory.resolve(RegionFile.fileName(regionX, regionZ)),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+
+            // files without a complete header are treated as empty, like the reader does
+            if (channel.size() >= RegionFile.HEADER_SIZE) {
+                var header = ByteBuffer.allocate(RegionFile.HEADER_SIZE);
+                while (header.hasRemaining()) {
+                    if (channel.read(header, header.position()) == -1) throw new IOException("Unexpected end of file");
+                }
+                header.flip().asIntBuffer().get(locations).get(timestamps);
+            } else {
+                writeHeader();
+            }
+            sectors = SectorBitmap.of(locations);
+        }
+
+        private void writeHeader() throws IOException {
+            var header = ByteBuffer.allocate(RegionFile.HEADER_SIZE);
+            header.asIntBuffer().put(locations).put(timestamps);
+            writeFully(header, 0);
+        }
+
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.world.region;
+
+import java.util.BitSet;
+
+/**
+ * Tracks which sectors of a region file are in use. Runs of sectors are allocated first fit, so freed sectors are
+ * reused before the file grows.
+ */
+final class SectorBitmap {
+    private final BitSet used = new BitSet();
+
+    SectorBitmap() {
+        // the header
+        used.set(0, RegionFile.HEADER_SIZE / RegionFile.SECTOR_SIZE);
+    }
+
+    /**
+     * @param locations the locations of the header, 0 for chunks that aren't stored
+     * @return the bitmap of a file with the given locations
+     */
+    static SectorBitmap of(int[] locations) {
+        var bitmap = new SectorBitmap();
+        for (var location : locations) {
+            if (location != 0) bitmap.used.set(location >>> 8, (location >>> 8) + (location & 0xFF));
+        }
+        return bitmap;
+    }
+
+    /**
+     * Allocates the first run of free sectors that is long enough, which may be past the end of the file.
+     *
+     * @param count the amount of sectors
+     * @return the first sector of the run
+     */
+    int allocate(int count) {
+        var start = used.nextClearBit(0);
+        for (var end = used.nextSetBit(start); end != -1 && end - start < count; end = used.nextSetBit(start)) {
+            start = used.nextClearBit(end);
+        }
+        used.set(start, start + count);
+        return start;
+    }
+
+    /**
+     * @param location the location of the sectors to free, as stored in the header
+     */
+    void free(int location) {
+        if (location != 0) used.clear(location >>> 8, (location >>> 8) + (location & 0xFF));
+    }
+}
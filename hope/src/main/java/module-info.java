@@ -15,6 +15,5 @@ module io.github.madethoughts.hope {
     requires java.sql;
 
     requires io.github.madethoughts.hope.processor;
-
-    exports io.github.madethoughts.hope.network.packets.clientbound.status to com.google.gson;
+    requires hope.nbt.main;
 }
\ No newline at end of file
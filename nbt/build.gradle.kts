@@ -1,6 +1,7 @@
 plugins {
     id("java")
     application
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "io.github.madethoughts.hope"
@@ -38,4 +39,12 @@ tasks {
     test {
         useJUnitPlatform()
     }
+
+    named<JavaCompile>("compileJmhJava") {
+        options.compilerArgs = ENABLE_PREVIEW
+    }
+}
+
+jmh {
+    jvmArgs.addAll(ENABLE_PREVIEW)
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package io.github.madethoughts.hope.nbt.benchmark;
+
+import io.github.madethoughts.hope.nbt.Compression;
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.deserialization.BatchDeserializer;
+import io.github.madethoughts.hope.nbt.deserialization.Deserializer;
+import io.github.madethoughts.hope.nbt.deserialization.NbtLimits;
+import io.github.madethoughts.hope.nbt.serialization.Serializer;
+import io.github.madethoughts.hope.nbt.tree.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a region worth of zlib compressed, chunk like documents sequentially and with {@link BatchDeserializer}
+ * on pools of increasing parallelism, to show how the batch scales across cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchDeserializerBenchmark {
+    private static final int CHUNKS = 1024;
+    private static final int SECTIONS = 24;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private List<ByteBuffer> inputs;
+    private ForkJoinPool pool;
+    private BatchDeserializer batch;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        inputs = new ArrayList<>(CHUNKS);
+        for (var i = 0; i < CHUNKS; i++) {
+            var bytes = Serializer.serialize(Mode.FILE, Compression.ZLIB, chunk(random, i));
+            inputs.add(ByteBuffer.wrap(bytes));
+        }
+        pool = new ForkJoinPool(parallelism);
+        batch = new BatchDeserializer(pool, Mode.FILE, Compression.ZLIB, NbtLimits.DEFAULT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private static RootCompound chunk(Random random, int index) {
+        var sections = new ArrayList<Tag>(SECTIONS);
+        for (var y = 0; y < SECTIONS; y++) {
+            var states = new long[256];
+            for (var i = 0; i < states.length; i++) states[i] = random.nextLong();
+
+            var palette = new ArrayList<Tag>();
+            for (var i = 0; i < 8; i++) {
+                palette.add(compound(
+                        "Name", new TagString("minecraft:block_" + random.nextInt(64)),
+                        "Properties", compound("axis", new TagString("y"), "waterlogged", new TagString("false"))
+                ));
+            }
+
+            sections.add(compound(
+                    "Y", new TagByte((byte) (y - 4)),
+                    "block_states", compound("palette", new TagList(palette), "data", new TagLongArray(states)),
+                    "BlockLight", new TagByteArray(new byte[2048]),
+                    "SkyLight", new TagByteArray(new byte[2048])
+            ));
+        }
+        return new RootCompound("", compound(
+                "DataVersion", new TagInt(3700),
+                "xPos", new TagInt(index % 32),
+                "zPos", new TagInt(index / 32),
+                "Status", new TagString("minecraft:full"),
+                "LastUpdate", new TagLong(random.nextLong()),
+                "sections", new TagList(sections)
+        ));
+    }
+
+    private static TagCompound compound(Object... entries) {
+        var values = new HashMap<String, Tag>();
+        for (var i = 0; i < entries.length; i += 2) values.put((String) entries[i], (Tag) entries[i + 1]);
+        return new TagCompound(values);
+    }
+
+    @Benchmark
+    public void sequential(Blackhole blackhole) {
+        for (var input : inputs) {
+            blackhole.consume(Deserializer.deserialize(Mode.FILE, Compression.ZLIB, input.duplicate()));
+        }
+    }
+
+    @Benchmark
+    public List<RootCompound> batchOrdered() {
+        return batch.deserializeAll(inputs);
+    }
+
+    @Benchmark
+    public void batchStreaming(Blackhole blackhole) {
+        batch.deserializeEach(inputs, (root, _) -> blackhole.consume(root));
+    }
+}
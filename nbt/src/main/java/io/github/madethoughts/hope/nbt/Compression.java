@@ -2,5 +2,15 @@ package io.github.madethoughts.hope.nbt;
 
 public enum Compression {
     NONE,
-    GZIP
+    GZIP,
+
+    /**
+     * Used by anvil region files for chunks.
+     */
+    ZLIB,
+
+    /**
+     * The LZ4 block stream format of lz4-java, optionally used by anvil region files.
+     */
+    LZ4
 }
@@ -0,0 +1,177 @@
+package io.github.madethoughts.hope.nbt;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The string encoding of nbt, the modified UTF-8 of {@link java.io.DataOutput#writeUTF(String)}.
+ * It differs from standard UTF-8 in two points: the null char is encoded as two bytes, so encoded strings never
+ * contain a zero byte, and supplementary characters are encoded as their two surrogates of three bytes each.
+ * <p>
+ * Most names and values are ASCII, which is decoded by a single bulk copy into a compact Latin-1 string and encoded
+ * by copying the string's bytes, without an intermediate array. Four byte sequences of standard UTF-8 are decoded
+ * as well, malformed sequences are replaced by U+FFFD.
+ */
+public final class ModifiedUtf8 {
+    private static final char REPLACEMENT = '\uFFFD';
+    // the sign bits of eight bytes, which are only set for non ASCII bytes
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private ModifiedUtf8() {}
+
+    /**
+     * Calculates the encoded length of the given string, without encoding it.
+     *
+     * @param value the string
+     * @return the encoded length in bytes, excluding any length prefix
+     */
+    public static int encodedLength(String value) {
+        var length = value.length();
+        for (var i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c >= 0x800) {
+                length += 2;
+            } else if (c >= 0x80 || c == 0) {
+                length += 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes the string directly into the buffer, starting at its position.
+     *
+     * @param value         the string
+     * @param encodedLength the length returned by {@link ModifiedUtf8#encodedLength(String)}
+     * @param target        the buffer, which needs enough bytes remaining
+     */
+    @SuppressWarnings("deprecation")
+    public static void encode(String value, int encodedLength, ByteBuffer target) {
+        var length = value.length();
+        // only strings of chars from 1 to 0x7F have as many bytes as chars
+        if (encodedLength == length) {
+            if (target.hasArray()) {
+                // copies the low bytes of the chars, which is a plain array copy for compact strings
+                value.getBytes(0, length, target.array(), target.arrayOffset() + target.position());
+                target.position(target.position() + length);
+            } else {
+                for (var i = 0; i < length; i++) target.put((byte) value.charAt(i));
+            }
+            return;
+        }
+
+        for (var i = 0; i < length; i++) {
+            var c = value.charAt(i);
+            if (c < 0x80 && c != 0) {
+                target.put((byte) c);
+            } else if (c < 0x800) {
+                target.put((byte) (0xC0 | (c >> 6)));
+                target.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                target.put((byte) (0xE0 | (c >> 12)));
+                target.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                target.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * @param segment the segment containing the encoded string
+     * @param offset  the offset of the string, excluding any length prefix
+     * @param length  the encoded length
+     * @return the decoded string
+     */
+    public static String decode(MemorySegment segment, long offset, int length) {
+        // heap segments are decoded in their backing array, which is copied once into the string
+        if (segment.heapBase().orElse(null) instanceof byte[] array) {
+            return decode(array, Math.toIntExact(segment.address() + offset), length);
+        }
+
+        var bytes = new byte[length];
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset, bytes, 0, length);
+        // off-heap ASCII is checked in place, so the bytes are only scanned again if they have to be decoded
+        if (isAscii(segment, offset, length)) return new String(bytes, StandardCharsets.ISO_8859_1);
+        return decode(bytes, 0, length);
+    }
+
+    /**
+     * @param buffer the buffer containing the encoded string
+     * @param offset the absolute offset of the string, excluding any length prefix
+     * @param length the encoded length
+     * @return the decoded string
+     */
+    public static String decode(ByteBuffer buffer, int offset, int length) {
+        if (buffer.hasArray()) return decode(buffer.array(), buffer.arrayOffset() + offset, length);
+        var bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return decode(bytes, 0, length);
+    }
+
+    /**
+     * @param bytes  the array containing the encoded string
+     * @param offset the offset of the string, excluding any length prefix
+     * @param length the encoded length
+     * @return the decoded string
+     */
+    public static String decode(byte[] bytes, int offset, int length) {
+        var end = offset + length;
+        var i = offset;
+        while (i < end && bytes[i] >= 0) i++;
+        // ASCII is a subset of Latin-1, which is copied as is into a compact string
+        if (i == end) return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+
+        // every char takes at least one byte
+        var chars = new char[length];
+        var count = 0;
+        for (var j = offset; j < i; j++) chars[count++] = (char) bytes[j];
+
+        while (i < end) {
+            int b = bytes[i++];
+            if (b >= 0) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0 && continuations(bytes, i, end, 1)) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[i++] & 0x3F));
+            } else if ((b & 0xF0) == 0xE0 && continuations(bytes, i, end, 2)) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[i] & 0x3F) << 6) | (bytes[i + 1] & 0x3F));
+                i += 2;
+            } else if ((b & 0xF8) == 0xF0 && continuations(bytes, i, end, 3)) {
+                // standard UTF-8, as written by other implementations
+                var codePoint = ((b & 0x07) << 18) | ((bytes[i] & 0x3F) << 12) | ((bytes[i + 1] & 0x3F) << 6)
+                                | (bytes[i + 2] & 0x3F);
+                i += 3;
+                if (Character.isSupplementaryCodePoint(codePoint)) {
+                    chars[count++] = Character.highSurrogate(codePoint);
+                    chars[count++] = Character.lowSurrogate(codePoint);
+                } else {
+                    chars[count++] = REPLACEMENT;
+                }
+            } else {
+                chars[count++] = REPLACEMENT;
+            }
+        }
+        // compacted to Latin-1 if possible
+        return new String(chars, 0, count);
+    }
+
+    private static boolean isAscii(MemorySegment segment, long offset, int length) {
+        var end = offset + length;
+        var i = offset;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            if ((segment.get(ValueLayout.JAVA_LONG_UNALIGNED, i) & HIGH_BITS) != 0) return false;
+        }
+        for (; i < end; i++) {
+            if (segment.get(ValueLayout.JAVA_BYTE, i) < 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean continuations(byte[] bytes, int from, int end, int count) {
+        if (from + count > end) return false;
+        for (var i = from; i < from + count; i++) {
+            if ((bytes[i] & 0xC0) != 0x80) return false;
+        }
+        return true;
+    }
+}
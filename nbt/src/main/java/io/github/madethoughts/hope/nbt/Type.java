@@ -26,13 +26,12 @@ public enum Type {
         this.klass = klass;
     }
 
+    // the ids are equal to the ordinals
+    private static final Type[] BY_ID = values();
+
     public static Type byId(int id) {
-        for (var type : Type.values()) {
-            if (id == type.id) {
-                return type;
-            }
-        }
-        throw new IllegalArgumentException("Unknown  id %s".formatted(id));
+        if (id < 0 || id >= BY_ID.length) throw new IllegalArgumentException("Unknown  id %s".formatted(id));
+        return BY_ID[id];
     }
 
     public static Type byTagClass(Class<? extends Tag> klass) {
@@ -44,6 +43,27 @@ public enum Type {
         throw new IllegalArgumentException("Unknown class %s".formatted(klass));
     }
 
+    /**
+     * @param tag the tag
+     * @return the type of the tag, determined by a switch over the sealed tag types
+     */
+    public static Type of(Tag tag) {
+        return switch (tag) {
+            case TagByte _ -> BYTE;
+            case TagShort _ -> SHORT;
+            case TagInt _ -> INT;
+            case TagLong _ -> LONG;
+            case TagFloat _ -> FLOAT;
+            case TagDouble _ -> DOUBLE;
+            case TagByteArray _ -> BYTE_ARRAY;
+            case TagString _ -> STRING;
+            case TagList _ -> LIST;
+            case TagCompound _ -> COMPOUND;
+            case TagIntArray _ -> INT_ARRAY;
+            case TagLongArray _ -> LONG_ARRAY;
+        };
+    }
+
     public int id() {
         return id;
     }
@@ -51,4 +71,17 @@ public enum Type {
     public Class<?> klass() {
         return klass;
     }
+
+    /**
+     * @return the size of this type's payload in bytes or -1 if it isn't fixed
+     */
+    public int payloadSize() {
+        return switch (this) {
+            case BYTE -> Byte.BYTES;
+            case SHORT -> Short.BYTES;
+            case INT, FLOAT -> Integer.BYTES;
+            case LONG, DOUBLE -> Long.BYTES;
+            default -> -1;
+        };
+    }
 }
@@ -0,0 +1,61 @@
+package io.github.madethoughts.hope.nbt.codec;
+
+import io.github.madethoughts.hope.nbt.Compression;
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.deserialization.Deserializer;
+import io.github.madethoughts.hope.nbt.deserialization.NbtReader;
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes a value directly from/to the streaming nbt reader and writer, without building a tag tree.
+ * Implementations are generated for records annotated with {@link NbtRecord}.
+ *
+ * @param <T> the type of the value
+ */
+public interface NbtCodec<T> {
+
+    /**
+     * Reads the value from the tags of a compound that was entered already, up to and including its end.
+     *
+     * @param reader the reader
+     * @return the value
+     */
+    T read(NbtReader reader);
+
+    /**
+     * Writes the value as tags of a compound whose header was written already, including the compound's end.
+     *
+     * @param writer the writer
+     * @param value  the value
+     */
+    void write(NbtWriter writer, T value);
+
+    /**
+     * Reads the value from the root compound of the given, perhaps compressed data.
+     *
+     * @param mode        the mode to be used
+     * @param compression the type of compression to be used
+     * @param buffer      the data
+     * @return the value
+     */
+    default T readRoot(Mode mode, Compression compression, ByteBuffer buffer) {
+        var reader = new NbtReader(Deserializer.decompress(compression, buffer));
+        reader.beginRoot(mode);
+        return read(reader);
+    }
+
+    /**
+     * Writes the value as root compound.
+     *
+     * @param mode   the mode to be used
+     * @param name   the root compound's name, omitted in {@link Mode#NETWORK}
+     * @param writer the writer
+     * @param value  the value
+     */
+    default void writeRoot(Mode mode, String name, NbtWriter writer, T value) {
+        writer.writeRoot(mode, name);
+        write(writer, value);
+    }
+}
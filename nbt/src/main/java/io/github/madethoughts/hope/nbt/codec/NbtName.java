@@ -0,0 +1,15 @@
+package io.github.madethoughts.hope.nbt.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the tag name of a record component, e.g. for minecraft's "Count" or "block_states".
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface NbtName {
+    String value();
+}
@@ -0,0 +1,20 @@
+package io.github.madethoughts.hope.nbt.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a {@link NbtCodec} for the annotated record, named after the record with the suffix "Codec"
+ * (nested records are joined by '_', e.g. {@code Player_ItemCodec}).
+ * <p>
+ * Each component maps to a tag of the record's compound, named like the component unless {@link NbtName} is
+ * present. Supported are primitives (booleans as bytes), strings, byte/int/long arrays, other annotated records
+ * and lists of these (primitives boxed). Missing tags leave the component at its default value, null for
+ * references, while unknown tags and tags of another type are skipped. Null components aren't written.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface NbtRecord {
+}
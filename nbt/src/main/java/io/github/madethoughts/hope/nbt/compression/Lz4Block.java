@@ -0,0 +1,289 @@
+package io.github.madethoughts.hope.nbt.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * The LZ4 block stream format, as written by lz4-java's {@code LZ4BlockOutputStream} and used by minecraft for
+ * chunk compression.
+ * Each block starts with a header: the magic "LZ4Block", a token (compression method | level), the compressed and
+ * decompressed length and an xxHash32 checksum of the decompressed data, all little endian.
+ * An empty block marks the end of the stream.
+ */
+public final class Lz4Block {
+    private static final byte[] MAGIC = {'L', 'Z', '4', 'B', 'l', 'o', 'c', 'k'};
+    private static final int HEADER_LENGTH = MAGIC.length + 1 + 3 * Integer.BYTES;
+    private static final int METHOD_RAW = 0x10;
+    private static final int METHOD_LZ4 = 0x20;
+    private static final int CHECKSUM_SEED = 0x9747B28C;
+    // lz4-java's checksum only keeps the lower 28 bits
+    private static final int CHECKSUM_MASK = 0xFFFFFFF;
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_BLOCK_LENGTH = 1 << 25;
+    // lz4-java's default block size, stored as log2(size) - 10 in the lower bits of the token
+    private static final int BLOCK_LENGTH = 1 << 16;
+    private static final int COMPRESSION_LEVEL = 6;
+    private static final int MAX_OFFSET = 0xFFFF;
+    private static final int MF_LIMIT = 12;
+    private static final int LAST_LITERALS = 5;
+    private static final int HASH_LOG = 12;
+    private static final int HASH_MULTIPLIER = -1640531535;
+    // the step grows by one every 64 bytes without a match
+    private static final int SKIP_TRIGGER = 6;
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    // a sequence expands to at most 255 bytes per encoded byte, which bounds bogus decompressed lengths
+    private static final int MAX_EXPANSION = 255;
+
+    private Lz4Block() {}
+
+    /**
+     * Sums the decompressed length of all blocks of the stream, without decompressing them.
+     * The claimed length of each block is bounded by its compressed length, so the sum is at most
+     * {@value MAX_EXPANSION} times the length of the stream.
+     *
+     * @param source the stream, starting at its position
+     * @return the decompressed length
+     * @throws IOException if the stream is malformed
+     */
+    public static int decompressedLength(ByteBuffer source) throws IOException {
+        var in = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        long total = 0;
+        while (in.remaining() >= HEADER_LENGTH) {
+            var header = Header.read(in);
+            if (header.end()) break;
+            total += header.decompressedLength();
+            if (total > Integer.MAX_VALUE) throw new IOException("Decompressed data is too big");
+            skip(in, header.compressedLength());
+        }
+        return (int) total;
+    }
+
+    /**
+     * Decompresses all blocks of the stream.
+     *
+     * @param source the stream, starting at its position. The position is moved behind the end block
+     * @param target the array to decompress into
+     * @param offset the offset to start writing at
+     * @return the total amount of decompressed bytes
+     * @throws IOException if the stream is malformed or a checksum doesn't match
+     */
+    public static int decompress(ByteBuffer source, byte[] target, int offset) throws IOException {
+        var order = source.order();
+        source.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            var position = offset;
+            while (source.remaining() >= HEADER_LENGTH) {
+                var header = Header.read(source);
+                if (header.end()) break;
+
+                var length = header.decompressedLength();
+                if (length > target.length - position) throw new IOException("Target is too small");
+                var blockEnd = source.position() + header.compressedLength();
+                if (blockEnd > source.limit()) throw new IOException("Truncated block");
+
+                switch (header.method()) {
+                    case METHOD_RAW -> {
+                        if (header.compressedLength() != length) throw new IOException("Malformed raw block");
+                        source.get(target, position, length);
+                    }
+                    case METHOD_LZ4 -> decompressBlock(source.slice(source.position(), header.compressedLength()),
+                            target, position, length);
+                    default -> throw new IOException("Unknown compression method %s".formatted(header.method()));
+                }
+                source.position(blockEnd);
+
+                var checksum = XXHash32.hash(target, position, length, CHECKSUM_SEED) & CHECKSUM_MASK;
+                if (checksum != header.checksum()) throw new IOException("Block checksum mismatch");
+                position += length;
+            }
+            return position - offset;
+        } finally {
+            source.order(order);
+        }
+    }
+
+    private static void decompressBlock(ByteBuffer src, byte[] dst, int dstOffset, int length) throws IOException {
+        var dp = dstOffset;
+        var dstEnd = dstOffset + length;
+        var sp = 0;
+        var srcEnd = src.limit();
+        try {
+            while (true) {
+                var token = src.get(sp++) & 0xFF;
+
+                // literals
+                var literalLength = token >>> 4;
+                if (literalLength == 15) {
+                    int b;
+                    do {
+                        b = src.get(sp++) & 0xFF;
+                        literalLength += b;
+                    } while (b == 255);
+                }
+                if (literalLength > dstEnd - dp || literalLength > srcEnd - sp) {
+                    throw new IOException("Malformed literal length");
+                }
+                src.get(sp, dst, dp, literalLength);
+                sp += literalLength;
+                dp += literalLength;
+
+                // the last sequence only contains literals
+                if (sp == srcEnd) break;
+
+                var matchOffset = (src.get(sp) & 0xFF) | (src.get(sp + 1) & 0xFF) << 8;
+                sp += 2;
+                var matchLength = token & 0xF;
+                if (matchLength == 15) {
+                    int b;
+                    do {
+                        b = src.get(sp++) & 0xFF;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+
+                var matchStart = dp - matchOffset;
+                if (matchOffset == 0 || matchStart < dstOffset || matchLength > dstEnd - dp) {
+                    throw new IOException("Malformed match");
+                }
+                if (matchOffset >= matchLength) {
+                    System.arraycopy(dst, matchStart, dst, dp, matchLength);
+                    dp += matchLength;
+                } else {
+                    // overlapping matches repeat the already copied bytes
+                    for (var i = 0; i < matchLength; i++) dst[dp++] = dst[matchStart + i];
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated block", e);
+        }
+        if (dp != dstEnd) throw new IOException("Decompressed length doesn't match the header");
+    }
+
+    /**
+     * Compresses data into a stream of blocks of {@value BLOCK_LENGTH} bytes, like lz4-java does by default.
+     * Matches are found greedily by a hash table of the last position of each four byte sequence, which is fast but
+     * compresses a bit worse than lz4's high compression mode. Blocks that don't get smaller are stored raw.
+     *
+     * @param data   the data
+     * @param offset the offset of the data
+     * @param length the length of the data
+     * @param out    the stream to write to
+     * @throws IOException any exception thrown by the stream
+     */
+    public static void compress(byte[] data, int offset, int length, OutputStream out) throws IOException {
+        var header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        var compressed = new byte[maxCompressedLength(Math.min(length, BLOCK_LENGTH))];
+        var table = new int[1 << HASH_LOG];
+        for (var position = offset; position < offset + length; ) {
+            var blockLength = Math.min(BLOCK_LENGTH, offset + length - position);
+            var compressedLength = compressBlock(data, position, blockLength, compressed, table);
+            var raw = compressedLength >= blockLength;
+            header.clear().put(MAGIC).put((byte) ((raw ? METHOD_RAW : METHOD_LZ4) | COMPRESSION_LEVEL))
+                  .putInt(raw ? blockLength : compressedLength)
+                  .putInt(blockLength)
+                  .putInt(XXHash32.hash(data, position, blockLength, CHECKSUM_SEED) & CHECKSUM_MASK);
+            out.write(header.array());
+            if (raw) {
+                out.write(data, position, blockLength);
+            } else {
+                out.write(compressed, 0, compressedLength);
+            }
+            position += blockLength;
+        }
+
+        // end block
+        header.clear().put(MAGIC).put((byte) (METHOD_RAW | COMPRESSION_LEVEL)).putInt(0).putInt(0).putInt(0);
+        out.write(header.array());
+    }
+
+    private static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    private static int compressBlock(byte[] src, int srcOffset, int length, byte[] dst, int[] table) {
+        var end = srcOffset + length;
+        // the format requires the last match to start 12 bytes and to end 5 bytes before the end of the block
+        var matchStartLimit = end - MF_LIMIT;
+        var matchEndLimit = end - LAST_LITERALS;
+        var anchor = srcOffset;
+        var dp = 0;
+
+        Arrays.fill(table, -1);
+        var sp = srcOffset;
+        while (sp < matchStartLimit) {
+            var sequence = (int) INT.get(src, sp);
+            var slot = (sequence * HASH_MULTIPLIER) >>> (Integer.SIZE - HASH_LOG);
+            var candidate = table[slot];
+            table[slot] = sp;
+
+            if (candidate < 0 || sp - candidate > MAX_OFFSET || (int) INT.get(src, candidate) != sequence) {
+                // skips faster through data without matches
+                sp += 1 + ((sp - anchor) >>> SKIP_TRIGGER);
+                continue;
+            }
+
+            var matchLength = MIN_MATCH;
+            while (sp + matchLength < matchEndLimit && src[candidate + matchLength] == src[sp + matchLength]) {
+                matchLength++;
+            }
+            var token = dp;
+            dp = writeLiterals(src, anchor, sp - anchor, dst, dp);
+            dst[dp++] = (byte) (sp - candidate);
+            dst[dp++] = (byte) ((sp - candidate) >>> 8);
+            var matchCode = matchLength - MIN_MATCH;
+            dst[token] |= (byte) Math.min(matchCode, 15);
+            if (matchCode >= 15) dp = writeLength(dst, dp, matchCode - 15);
+
+            sp += matchLength;
+            anchor = sp;
+        }
+
+        // the last sequence only contains literals
+        return writeLiterals(src, anchor, end - anchor, dst, dp);
+    }
+
+    // writes the token with the literal length and the literals, the match length is added to the token afterward
+    private static int writeLiterals(byte[] src, int offset, int count, byte[] dst, int dp) {
+        dst[dp++] = (byte) (Math.min(count, 15) << 4);
+        if (count >= 15) dp = writeLength(dst, dp, count - 15);
+        System.arraycopy(src, offset, dst, dp, count);
+        return dp + count;
+    }
+
+    private static int writeLength(byte[] dst, int dp, int value) {
+        for (; value >= 255; value -= 255) dst[dp++] = (byte) 255;
+        dst[dp++] = (byte) value;
+        return dp;
+    }
+
+    private static void skip(ByteBuffer in, int count) throws IOException {
+        if (count > in.remaining()) throw new IOException("Truncated block");
+        in.position(in.position() + count);
+    }
+
+    private record Header(int method, int compressedLength, int decompressedLength, int checksum) {
+        static Header read(ByteBuffer in) throws IOException {
+            for (var b : MAGIC) {
+                if (in.get() != b) throw new IOException("Missing LZ4Block magic");
+            }
+            var method = in.get() & 0xF0;
+            var header = new Header(method, in.getInt(), in.getInt(), in.getInt());
+            if (header.compressedLength() < 0 || header.decompressedLength() < 0
+                || header.decompressedLength() > MAX_BLOCK_LENGTH
+                || header.decompressedLength() > (long) header.compressedLength() * MAX_EXPANSION) {
+                throw new IOException("Malformed block lengths");
+            }
+            return header;
+        }
+
+        boolean end() {
+            return decompressedLength == 0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.madethoughts.hope.nbt.compression;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The 32 bit xxHash, used as checksum by the LZ4 block format.
+ */
+final class XXHash32 {
+    private static final int PRIME1 = 0x9E3779B1;
+    private static final int PRIME2 = 0x85EBCA77;
+    private static final int PRIME3 = 0xC2B2AE3D;
+    private static final int PRIME4 = 0x27D4EB2F;
+    private static final int PRIME5 = 0x165667B1;
+
+    private XXHash32() {}
+
+    static int hash(byte[] bytes, int offset, int length, int seed) {
+        var data = ByteBuffer.wrap(bytes, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        var position = offset;
+        var end = offset + length;
+
+        int hash;
+        if (length >= 16) {
+            var v1 = seed + PRIME1 + PRIME2;
+            var v2 = seed + PRIME2;
+            var v3 = seed;
+            var v4 = seed - PRIME1;
+            for (; position <= end - 16; position += 16) {
+                v1 = round(v1, data.getInt(position));
+                v2 = round(v2, data.getInt(position + 4));
+                v3 = round(v3, data.getInt(position + 8));
+                v4 = round(v4, data.getInt(position + 12));
+            }
+            hash = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7)
+                   + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            hash = seed + PRIME5;
+        }
+
+        hash += length;
+        for (; position <= end - 4; position += 4) {
+            hash = Integer.rotateLeft(hash + data.getInt(position) * PRIME3, 17) * PRIME4;
+        }
+        for (; position < end; position++) {
+            hash = Integer.rotateLeft(hash + (bytes[position] & 0xFF) * PRIME5, 11) * PRIME1;
+        }
+
+        hash ^= hash >>> 15;
+        hash *= PRIME2;
+        hash ^= hash >>> 13;
+        hash *= PRIME3;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static int round(int value, int lane) {
+        return Integer.rotateLeft(value + lane * PRIME2, 13) * PRIME1;
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.madethoughts.hope.nbt.deserialization;
+
+import io.github.madethoughts.hope.nbt.Compression;
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.tree.RootCompound;
+import io.github.madethoughts.hope.nbt.tree.TagInterner;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Decompresses and deserializes many independent inputs in parallel, like the chunks of a region file or a
+ * directory of player files.
+ * The inputs are split recursively on a {@link ForkJoinPool}, so idle workers steal the remaining inputs from busy
+ * ones and uneven input sizes are balanced out.
+ * <pre>{@code
+ * var batch = new BatchDeserializer(ForkJoinPool.commonPool(), Mode.FILE, Compression.ZLIB, NbtLimits.DEFAULT);
+ * List<RootCompound> chunks = batch.deserializeAll(buffers);
+ * }</pre>
+ * Batches are immutable and can be shared between threads.
+ */
+public final class BatchDeserializer {
+    private final ForkJoinPool pool;
+    private final Mode mode;
+    private final Compression compression;
+    private final NbtLimits limits;
+    private final TagInterner interner;
+
+    /**
+     * @param pool        the pool the inputs are decoded on
+     * @param mode        the mode to be used
+     * @param compression the type of compression of all inputs
+     * @param limits      the limits each input is decoded with
+     */
+    public BatchDeserializer(ForkJoinPool pool, Mode mode, Compression compression, NbtLimits limits) {
+        this(pool, mode, compression, limits, null);
+    }
+
+    /**
+     * @param pool        the pool the inputs are decoded on
+     * @param mode        the mode to be used
+     * @param compression the type of compression of all inputs
+     * @param limits      the limits each input is decoded with
+     * @param interner    the interner deduplicating the tags of all inputs, null to not deduplicate
+     */
+    public BatchDeserializer(ForkJoinPool pool, Mode mode, Compression compression, NbtLimits limits,
+                             TagInterner interner) {
+        this.pool = pool;
+        this.mode = mode;
+        this.compression = compression;
+        this.limits = limits;
+        this.interner = interner;
+    }
+
+    /**
+     * Deserializes all inputs and waits for them to complete.
+     *
+     * @param inputs the perhaps compressed inputs, each read starting at its position
+     * @return the deserialized inputs in the order of the inputs
+     * @throws NBTDeserializationException if any input is malformed, naming the index of the input
+     */
+    public List<RootCompound> deserializeAll(List<ByteBuffer> inputs) {
+        var results = new RootCompound[inputs.size()];
+        deserializeEach(inputs, (root, index) -> results[index] = root);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Deserializes all inputs and passes each one to the consumer as soon as it's decoded, in no particular order.
+     * The consumer is called concurrently by the pool's workers, so it has to be thread safe. This method returns
+     * after all inputs were consumed.
+     *
+     * @param inputs   the perhaps compressed inputs, each read starting at its position
+     * @param consumer receives each deserialized input together with its index in the inputs
+     * @throws NBTDeserializationException if any input is malformed, naming the index of the input. Malformed
+     *                                     inputs don't stop the others, the first failure is thrown after all
+     *                                     inputs were processed and suppresses the further ones
+     */
+    public void deserializeEach(List<ByteBuffer> inputs, ObjIntConsumer<RootCompound> consumer) {
+        if (inputs.isEmpty()) return;
+        var failure = new AtomicReference<NBTDeserializationException>();
+        pool.invoke(new Decode(inputs, consumer, failure, 0, inputs.size()));
+        if (failure.get() != null) throw failure.get();
+    }
+
+    private RootCompound deserialize(ByteBuffer input, int index) {
+        try {
+            // duplicated, so concurrent batches over the same buffers don't interfere
+            return Deserializer.deserialize(mode, compression, input.duplicate(), limits.budget(), interner);
+        } catch (NBTDeserializationException e) {
+            throw new NBTDeserializationException("Failed to deserialize input %s".formatted(index), e);
+        }
+    }
+
+    private final class Decode extends RecursiveAction {
+        private final List<ByteBuffer> inputs;
+        private final ObjIntConsumer<RootCompound> consumer;
+        private final AtomicReference<NBTDeserializationException> failure;
+        private final int from;
+        private final int to;
+
+        private Decode(List<ByteBuffer> inputs, ObjIntConsumer<RootCompound> consumer,
+                       AtomicReference<NBTDeserializationException> failure, int from, int to) {
+            this.inputs = inputs;
+            this.consumer = consumer;
+            this.failure = failure;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            // a single input is already expensive enough to be worth its own task
+            if (to - from == 1) {
+                RootCompound root;
+                try {
+                    root = deserialize(inputs.get(from), from);
+                } catch (NBTDeserializationException e) {
+                    if (!failure.compareAndSet(null, e)) failure.get().addSuppressed(e);
+                    return;
+                }
+                consumer.accept(root, from);
+                return;
+            }
+            var middle = (from + to) >>> 1;
+            invokeAll(new Decode(inputs, consumer, failure, from, middle),
+                    new Decode(inputs, consumer, failure, middle, to));
+        }
+    }
+}
@@ -1,31 +0,0 @@
-package io.github.madethoughts.hope.nbt.deserialization;
-
-import java.io.InputStream;
-import java.nio.ByteBuffer;
-
-class ByteBufferBackedInputStream extends InputStream {
-
-    private final ByteBuffer buffer;
-
-    public ByteBufferBackedInputStream(ByteBuffer buffer) {
-        this.buffer = buffer;
-    }
-
-    @Override
-    public int read() {
-        if (!buffer.hasRemaining()) {
-            return -1;
-        }
-        return buffer.get() & 0xFF;
-    }
-
-    public int read(byte[] bytes, int off, int len) {
-        if (!buffer.hasRemaining()) {
-            return -1;
-        }
-
-        len = Math.min(len, buffer.remaining());
-        buffer.get(bytes, off, len);
-        return len;
-    }
-}
@@ -0,0 +1,209 @@
+package io.github.madethoughts.hope.nbt.deserialization;
+
+import io.github.madethoughts.hope.nbt.Compression;
+import io.github.madethoughts.hope.nbt.compression.Lz4Block;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses nbt data directly from the source buffer into a single right-sized array.
+ * Inflaters and, for data that is only needed temporarily, the target arrays are pooled.
+ */
+final class Decompression {
+    private static final int MAX_POOLED = 16;
+    // bigger arrays aren't pooled, so rare huge payloads aren't retained forever
+    private static final int MAX_POOLED_LENGTH = 4 * 1024 * 1024;
+
+    private static final int GZIP_MAGIC = 0x8B1F;
+    private static final int GZIP_FHCRC = 2;
+    private static final int GZIP_FEXTRA = 4;
+    private static final int GZIP_FNAME = 8;
+    private static final int GZIP_FCOMMENT = 16;
+    // deflate can't compress better than roughly 1:1032, which bounds the output and bogus recorded sizes
+    private static final int MAX_DEFLATE_RATIO = 1032;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+    private static final int MIN_LENGTH = 64;
+
+    private static final Queue<Inflater> rawInflaters = new ConcurrentLinkedQueue<>();
+    private static final Queue<Inflater> zlibInflaters = new ConcurrentLinkedQueue<>();
+    private static final Queue<byte[]> arrays = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pooledArrays = new AtomicInteger();
+
+    private Decompression() {}
+
+    /**
+     * @param compression the compression
+     * @param buffer      the compressed data, starting at its position
+     * @param pooled      whether the target array should be taken from the pool, it must be given back by
+     *                    {@link Decompression#release(ByteBuffer)} afterward
+     * @param budget      the budget charged with the decompressed bytes as they are produced, null to not limit them
+     * @return the decompressed data, the buffer itself if it isn't compressed
+     * @throws IOException                 if the data is malformed
+     * @throws NBTDeserializationException if the data decompresses to more bytes than the budget allows
+     */
+    static ByteBuffer decompress(Compression compression, ByteBuffer buffer, boolean pooled, NbtBudget budget)
+            throws IOException {
+        return switch (compression) {
+            case NONE -> buffer;
+            case GZIP -> gzip(buffer, pooled, budget);
+            case ZLIB -> {
+                // zlib doesn't record the uncompressed length, so start with a guess
+                var inflater = acquire(zlibInflaters, false);
+                try {
+                    var maxSize = limit(maxInflatedSize(buffer.remaining()), budget);
+                    yield inflate(inflater, buffer, guessSize(buffer.remaining(), maxSize), maxSize, pooled, budget);
+                } finally {
+                    release(zlibInflaters, inflater);
+                }
+            }
+            case LZ4 -> {
+                var length = Lz4Block.decompressedLength(buffer);
+                if (budget != null) budget.chargeDecompressed(length);
+                var target = array(length, pooled);
+                Lz4Block.decompress(buffer, target, 0);
+                yield ByteBuffer.wrap(target, 0, length);
+            }
+        };
+    }
+
+    /**
+     * Gives an array returned by a pooled decompression back to the pool.
+     *
+     * @param buffer the buffer returned by a pooled
+     *               {@link Decompression#decompress(Compression, ByteBuffer, boolean, NbtBudget)}
+     */
+    static void release(ByteBuffer buffer) {
+        var array = buffer.array();
+        if (array.length > MAX_POOLED_LENGTH) return;
+        if (pooledArrays.incrementAndGet() > MAX_POOLED) {
+            pooledArrays.decrementAndGet();
+            return;
+        }
+        arrays.offer(array);
+    }
+
+    private static ByteBuffer gzip(ByteBuffer buffer, boolean pooled, NbtBudget budget) throws IOException {
+        var in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (Short.toUnsignedInt(in.getShort()) != GZIP_MAGIC) throw new IOException("Not in GZIP format");
+        if (in.get() != 8) throw new IOException("Unsupported GZIP compression method");
+        var flags = in.get();
+        // modification time, extra flags and os
+        in.position(in.position() + 6);
+        if ((flags & GZIP_FEXTRA) != 0) in.position(in.position() + Short.toUnsignedInt(in.getShort()));
+        if ((flags & GZIP_FNAME) != 0) skipZeroTerminated(in);
+        if ((flags & GZIP_FCOMMENT) != 0) skipZeroTerminated(in);
+        if ((flags & GZIP_FHCRC) != 0) in.position(in.position() + 2);
+
+        // the trailer records the uncompressed size (modulo 2^32) of single member files
+        var recordedSize = in.getInt(in.limit() - Integer.BYTES);
+        var inflater = acquire(rawInflaters, true);
+        try {
+            var maxSize = limit(maxInflatedSize(in.remaining()), budget);
+            var expectedSize = recordedSize > 0 && recordedSize <= maxSize
+                    ? recordedSize
+                    : guessSize(in.remaining(), maxSize);
+            var result = inflate(inflater, in, expectedSize, maxSize, pooled, budget);
+
+            var crc = new CRC32();
+            crc.update(result.duplicate());
+            if (in.remaining() < 8 || in.getInt() != (int) crc.getValue()) throw new IOException("Corrupt GZIP trailer");
+            in.getInt();
+            buffer.position(in.position());
+            return result;
+        } finally {
+            release(rawInflaters, inflater);
+        }
+    }
+
+    private static void skipZeroTerminated(ByteBuffer in) {
+        while (in.get() != 0) ;
+    }
+
+    /**
+     * @param compressedSize the size of the compressed data
+     * @return the most deflate can inflate the data to
+     */
+    private static int maxInflatedSize(int compressedSize) {
+        return Math.clamp((long) compressedSize * MAX_DEFLATE_RATIO, MIN_LENGTH, MAX_ARRAY_LENGTH);
+    }
+
+    // one byte more than the budget allows, so exceeding it fails by the budget
+    private static int limit(int maxSize, NbtBudget budget) {
+        if (budget == null) return maxSize;
+        return Math.clamp(Math.min(budget.limits().maxBytes(), MAX_ARRAY_LENGTH - 1) + 1, MIN_LENGTH, maxSize);
+    }
+
+    private static int guessSize(int compressedSize, int maxSize) {
+        return Math.clamp((long) compressedSize * 4, MIN_LENGTH, maxSize);
+    }
+
+    /**
+     * @param expectedSize the initial size of the target, grown as needed
+     * @param maxSize      the size the output must not exceed
+     */
+    private static ByteBuffer inflate(Inflater inflater, ByteBuffer in, int expectedSize, int maxSize,
+                                      boolean pooled, NbtBudget budget) throws IOException {
+        var target = array(Math.clamp(expectedSize, MIN_LENGTH, maxSize), pooled);
+        var length = 0;
+        inflater.setInput(in);
+        try {
+            while (!inflater.finished()) {
+                // pooled arrays may be bigger than the limit
+                var capacity = Math.min(target.length, maxSize);
+                if (length == capacity) {
+                    if (capacity == maxSize) {
+                        throw new IOException("Decompressed data exceeds %s bytes".formatted(maxSize));
+                    }
+                    var grown = Arrays.copyOf(target, (int) Math.min(target.length * 2L, maxSize));
+                    if (pooled) release(ByteBuffer.wrap(target));
+                    target = grown;
+                    capacity = target.length;
+                }
+                var inflated = inflater.inflate(target, length, capacity - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated compressed data");
+                }
+                length += inflated;
+                if (budget != null) budget.chargeDecompressed(inflated);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        }
+        return ByteBuffer.wrap(target, 0, length);
+    }
+
+    private static byte[] array(int length, boolean pooled) {
+        if (pooled) {
+            for (var array : arrays) {
+                if (array.length >= length && arrays.remove(array)) {
+                    pooledArrays.decrementAndGet();
+                    return array;
+                }
+            }
+        }
+        return new byte[length];
+    }
+
+    private static Inflater acquire(Queue<Inflater> pool, boolean nowrap) {
+        var inflater = pool.poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    private static void release(Queue<Inflater> pool, Inflater inflater) {
+        inflater.reset();
+        if (pool.size() < MAX_POOLED) {
+            pool.offer(inflater);
+        } else {
+            inflater.end();
+        }
+    }
+}
@@ -5,26 +5,27 @@ import io.github.madethoughts.hope.nbt.Mode;
 import io.github.madethoughts.hope.nbt.Type;
 import io.github.madethoughts.hope.nbt.tree.*;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.zip.GZIPInputStream;
 
 public final class Deserializer {
     private final Mode mode;
     private final Compression compression;
+    private final NbtBudget budget;
+    private final TagInterner interner;
 
     private ByteBuffer buffer;
 
-    private Deserializer(Mode mode, Compression compression, ByteBuffer buffer) {
-        buffer.order(ByteOrder.BIG_ENDIAN);
+    private Deserializer(Mode mode, Compression compression, ByteBuffer buffer, NbtBudget budget,
+                         TagInterner interner) {
         this.mode = mode;
         this.buffer = buffer;
         this.compression = compression;
+        this.budget = budget;
+        this.interner = interner;
     }
 
     /**
@@ -35,7 +36,38 @@ public final class Deserializer {
      * @return the deserialized nbt data
      */
     public static RootCompound deserialize(Mode mode, Compression compression, ByteBuffer buffer) {
-        return new Deserializer(mode, compression, buffer).deserializeBytes();
+        return deserialize(mode, compression, buffer, NbtLimits.DEFAULT.budget());
+    }
+
+    /**
+     * Deserializes the given perhaps compressed {@link ByteBuffer} to a nbt tree, accounted by the given budget.
+     * Use this for untrusted data, the budget holds the peak usage afterward.
+     * @param mode the mode to be used
+     * @param compression the type of compression to be used
+     * @param buffer the buffer to be deserialized
+     * @param budget the budget, see {@link NbtLimits#budget()}
+     * @return the deserialized nbt data
+     * @throws NBTDeserializationException if the data exceeds the budget's limits
+     */
+    public static RootCompound deserialize(Mode mode, Compression compression, ByteBuffer buffer,
+                                           NbtBudget budget) {
+        return deserialize(mode, compression, buffer, budget, null);
+    }
+
+    /**
+     * Deserializes the given perhaps compressed {@link ByteBuffer} to a canonical nbt tree.
+     * Each tag is interned as soon as it's read, so subtrees already known by the interner are shared instead of
+     * being kept again. The returned tree is shared and must not be modified, see {@link TagInterner}.
+     * @param mode the mode to be used
+     * @param compression the type of compression to be used
+     * @param buffer the buffer to be deserialized
+     * @param budget the budget, see {@link NbtLimits#budget()}
+     * @param interner the interner deduplicating the tags, null to not deduplicate
+     * @return the deserialized nbt data
+     */
+    public static RootCompound deserialize(Mode mode, Compression compression, ByteBuffer buffer,
+                                           NbtBudget budget, TagInterner interner) {
+        return new Deserializer(mode, compression, buffer, budget, interner).deserializeBytes();
     }
 
     /**
@@ -49,101 +81,134 @@ public final class Deserializer {
         return deserialize(mode, compression, ByteBuffer.wrap(bytes));
     }
 
-    private NBTDeserializationException error(String msg) {
-        return new NBTDeserializationException(buffer.position(), msg);
+    /**
+     * Deserializes the given uncompressed {@link MemorySegment} to a nbt tree, without copying it to the heap first.
+     * The segment may be memory mapped and larger than 2 GB.
+     * @param mode the mode to be used
+     * @param segment the segment to be deserialized, starting at offset 0
+     * @return the deserialized nbt data
+     */
+    public static RootCompound deserialize(Mode mode, MemorySegment segment) {
+        return deserialize(mode, segment, NbtLimits.DEFAULT.budget());
     }
 
-    private RootCompound deserializeBytes() {
-        decompress();
-        if (Type.byId(buffer.get()) != Type.COMPOUND) throw error("NBT Data has to start with a compound");
+    /**
+     * Deserializes the given uncompressed {@link MemorySegment} to a nbt tree, accounted by the given budget.
+     * @param mode the mode to be used
+     * @param segment the segment to be deserialized, starting at offset 0
+     * @param budget the budget, see {@link NbtLimits#budget()}
+     * @return the deserialized nbt data
+     * @throws NBTDeserializationException if the data exceeds the budget's limits
+     */
+    public static RootCompound deserialize(Mode mode, MemorySegment segment, NbtBudget budget) {
+        return root(new NbtReader(segment, budget), mode, null);
+    }
 
-        String name = switch (mode) {
-            case NETWORK -> "";
-            case FILE -> unwrappedString();
-        };
+    /**
+     * Deserializes the given perhaps compressed {@link MemorySegment} to a nbt tree.
+     * Compressed data has to be decompressed to the heap, so it's limited to 2 GB.
+     * @param mode the mode to be used
+     * @param compression the type of compression to be used
+     * @param segment the segment to be deserialized, starting at offset 0
+     * @return the deserialized nbt data
+     */
+    public static RootCompound deserialize(Mode mode, Compression compression, MemorySegment segment) {
+        if (compression == Compression.NONE) return deserialize(mode, segment);
+        return deserialize(mode, compression, segment.asByteBuffer());
+    }
 
-        var payload = compound();
-        return new RootCompound(name, payload);
+    private static RootCompound root(NbtReader reader, Mode mode, TagInterner interner) {
+        reader.beginRoot(mode);
+        var name = reader.name();
+
+        var payload = compound(reader, interner);
+        return new RootCompound(name, interner != null ? interner.intern(payload) : payload);
     }
 
-    private void decompress() {
+    private RootCompound deserializeBytes() {
+        // the tree copies all values, so the decompressed data is only needed temporarily
+        // charged while decompressing, so compression bombs fail before they are fully inflated
+        buffer = decompress(compression, buffer, true, budget);
         try {
-            buffer = switch (compression) {
-                case NONE -> buffer;
-                case GZIP -> {
-                    try (var inputStream = new GZIPInputStream(new ByteBufferBackedInputStream(buffer))) {
-                        try (var outputStream = new ByteArrayOutputStream()) {
-                            inputStream.transferTo(outputStream);
-                            yield ByteBuffer.wrap(outputStream.toByteArray());
-                        }
-                    }
-                }
-            };
-        } catch (IOException ioException) {
-            throw new NBTDeserializationException("An Exception occurred during decompression", ioException);
+            return root(new NbtReader(buffer, budget), mode, interner);
+        } finally {
+            if (compression != Compression.NONE) Decompression.release(buffer);
         }
     }
 
-    private Tag deserialize(Type type) {
-        return switch (type) {
-            case END -> throw error("TAG_END isn't allowed to be wrapped in a named tag");
-            case BYTE -> new TagByte(buffer.get());
-            case SHORT -> new TagShort(buffer.getShort());
-            case INT -> new TagInt(buffer.getInt());
-            case LONG -> new TagLong(buffer.getLong());
-            case FLOAT -> new TagFloat(buffer.getFloat());
-            case DOUBLE -> new TagDouble(buffer.getDouble());
-            case STRING -> new TagString(unwrappedString());
-            case LIST -> list();
-            case COMPOUND -> compound();
-            case BYTE_ARRAY -> {
-                int length = buffer.getInt();
-                var bytes = new byte[length];
-                buffer.get(bytes);
-                yield new TagByteArray(bytes);
-            }
-            case INT_ARRAY -> {
-                int length = buffer.getInt();
-                var ints = new int[length];
-                buffer.asIntBuffer().get(ints);
-                yield new TagIntArray(ints);
+    /**
+     * Decompresses the given buffer, starting at its position.
+     * @param compression the type of compression to be used
+     * @param buffer the perhaps compressed buffer
+     * @return the uncompressed data, the passed buffer itself if it isn't compressed
+     */
+    public static ByteBuffer decompress(Compression compression, ByteBuffer buffer) {
+        return decompress(compression, buffer, false, null);
+    }
+
+    private static ByteBuffer decompress(Compression compression, ByteBuffer buffer, boolean pooled,
+                                         NbtBudget budget) {
+        try {
+            return Decompression.decompress(compression, buffer, pooled, budget);
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new NBTDeserializationException("An Exception occurred during decompression", e);
+        }
+    }
+
+    /**
+     * Reads the value of the tag the reader was advanced to into a tree.
+     * @param reader the reader
+     * @param type the type of the tag
+     * @return the tag
+     */
+    static Tag deserialize(NbtReader reader, Type type) {
+        return deserialize(reader, type, null);
+    }
+
+    private static Tag deserialize(NbtReader reader, Type type, TagInterner interner) {
+        var tag = switch (type) {
+            case END -> throw new IllegalStateException("TAG_END is never returned for values");
+            case BYTE -> new TagByte(reader.readByte());
+            case SHORT -> new TagShort(reader.readShort());
+            case INT -> new TagInt(reader.readInt());
+            case LONG -> new TagLong(reader.readLong());
+            case FLOAT -> new TagFloat(reader.readFloat());
+            case DOUBLE -> new TagDouble(reader.readDouble());
+            case STRING -> new TagString(reader.readString());
+            case LIST -> {
+                reader.beginList();
+                yield list(reader, interner);
             }
-            case LONG_ARRAY -> {
-                int length = buffer.getInt();
-                var longs = new long[length];
-                buffer.asLongBuffer().get(longs);
-                yield new TagLongArray(longs);
+            case COMPOUND -> {
+                reader.beginCompound();
+                yield compound(reader, interner);
             }
+            case BYTE_ARRAY -> new TagByteArray(reader.readByteArray());
+            case INT_ARRAY -> new TagIntArray(reader.readIntArray());
+            case LONG_ARRAY -> new TagLongArray(reader.readLongArray());
         };
+        // children are interned first, so they are canonical when their parent is interned
+        return interner != null ? interner.intern(tag) : tag;
     }
 
-    private String unwrappedString() {
-        // unsigned short
-        int length = buffer.getChar();
-        var bytes = new byte[length];
-        buffer.get(bytes);
-        return new String(bytes, StandardCharsets.UTF_8);
-    }
-
-    private TagCompound compound() {
-        var tags = new HashMap<String, Tag>();
-        while (Type.byId(buffer.get(buffer.position())) != Type.END) {
-            Type type = Type.byId(buffer.get());
-            String name = unwrappedString();
-            Tag payload = deserialize(type);
+    static TagCompound compound(NbtReader reader, TagInterner interner) {
+        var tags = new CompactMap<Tag>();
+        Type type;
+        while ((type = reader.nextTag()) != Type.END) {
+            String name = reader.name();
+            Tag payload = deserialize(reader, type, interner);
 
             tags.put(name, payload);
         }
-        buffer.get();
         return new TagCompound(tags);
     }
 
-    private TagList list() {
-        var tags = new ArrayList<Tag>();
-        var type = Type.byId(buffer.get());
-        int length = buffer.getInt();
-        for (int i = 0; i < length; i++) {
-            tags.add(deserialize(type));
+    static TagList list(NbtReader reader, TagInterner interner) {
+        // every element takes at least one byte, which bounds bogus lengths
+        var tags = new ArrayList<Tag>(Math.min(reader.remaining(), reader.remainingBytes()));
+        Type type;
+        while ((type = reader.nextTag()) != Type.END) {
+            tags.add(deserialize(reader, type, interner));
         }
         return new TagList(tags);
     }
@@ -0,0 +1,61 @@
+package io.github.madethoughts.hope.nbt.deserialization;
+
+import io.github.madethoughts.hope.nbt.ModifiedUtf8;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * A global, lossy table interning the names of tags while they are read.
+ * Chunk and item data repeat the same few names ("id", "Count", "Palette", ...) millions of times, so they are
+ * looked up by their encoded bytes and the cached string is reused without decoding.
+ * Each slot holds one name, colliding names just replace each other. The slots are read and written without
+ * synchronization, which is safe since strings are immutable.
+ */
+final class NameTable {
+    private static final int SIZE = 4096;
+    // longer names are rare and not worth caching
+    private static final int MAX_LENGTH = 64;
+
+    private static final String[] names = new String[SIZE];
+
+    private NameTable() {}
+
+    /**
+     * @param segment the segment containing the encoded name
+     * @param offset the offset of the name, excluding the length prefix
+     * @param length the encoded length of the name
+     * @return the interned or, if it isn't cacheable, a new string
+     */
+    static String name(MemorySegment segment, long offset, int length) {
+        if (length > MAX_LENGTH) return decode(segment, offset, length);
+
+        var hash = 0;
+        for (var i = 0; i < length; i++) {
+            var b = segment.get(ValueLayout.JAVA_BYTE, offset + i);
+            // only ASCII names can be compared char by char
+            if (b < 0) return decode(segment, offset, length);
+            hash = 31 * hash + b;
+        }
+
+        var slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+        var cached = names[slot];
+        if (cached != null && matches(cached, segment, offset, length)) return cached;
+
+        var name = decode(segment, offset, length);
+        names[slot] = name;
+        return name;
+    }
+
+    private static boolean matches(String name, MemorySegment segment, long offset, int length) {
+        if (name.length() != length) return false;
+        for (var i = 0; i < length; i++) {
+            if (name.charAt(i) != segment.get(ValueLayout.JAVA_BYTE, offset + i)) return false;
+        }
+        return true;
+    }
+
+    static String decode(MemorySegment segment, long offset, int length) {
+        return ModifiedUtf8.decode(segment, offset, length);
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.madethoughts.hope.nbt.deserialization;
+
+/**
+ * Accounts the resources used by a single decode against {@link NbtLimits}.
+ * Sizes are charged before anything is allocated for them, so a length prefix claiming more than allowed fails
+ * immediately with a {@link NBTDeserializationException}. Afterward, the budget holds the peak usage of the decode,
+ * even if it failed.
+ * <p>
+ * Budgets are mutable and not thread safe, each decode needs a new one.
+ */
+public final class NbtBudget {
+    private final NbtLimits limits;
+
+    private long bytes;
+    private long decompressedBytes;
+    private long elements;
+    private int peakDepth;
+
+    NbtBudget(NbtLimits limits) {
+        this.limits = limits;
+    }
+
+    public NbtLimits limits() {
+        return limits;
+    }
+
+    /**
+     * @return the amount of payload bytes decoded
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the amount of bytes compressed input was decompressed to
+     */
+    public long decompressedBytes() {
+        return decompressedBytes;
+    }
+
+    /**
+     * @return the amount of tags read, including declared list elements
+     */
+    public long elements() {
+        return elements;
+    }
+
+    /**
+     * @return the deepest nesting reached
+     */
+    public int peakDepth() {
+        return peakDepth;
+    }
+
+    void chargeBytes(long position, long count) {
+        bytes += count;
+        if (bytes > limits.maxBytes()) {
+            throw new NBTDeserializationException(position, "Exceeded the limit of %s bytes with %s bytes",
+                    limits.maxBytes(), bytes);
+        }
+    }
+
+    // decompressed data is accounted separately, so its payload isn't counted twice once it's read
+    void chargeDecompressed(long count) {
+        decompressedBytes += count;
+        if (decompressedBytes > limits.maxBytes()) {
+            throw new NBTDeserializationException(decompressedBytes,
+                    "Exceeded the limit of %s bytes while decompressing", limits.maxBytes());
+        }
+    }
+
+    void chargeElements(long position, long count) {
+        elements += count;
+        if (elements > limits.maxElements()) {
+            throw new NBTDeserializationException(position, "Exceeded the limit of %s elements with %s elements",
+                    limits.maxElements(), elements);
+        }
+    }
+
+    void enter(long position, int depth) {
+        if (depth > limits.maxDepth()) {
+            throw new NBTDeserializationException(position, "Exceeded the maximum depth of %s", limits.maxDepth());
+        }
+        peakDepth = Math.max(peakDepth, depth);
+    }
+
+    @Override
+    public String toString() {
+        return "NbtBudget{bytes=%s, decompressedBytes=%s, elements=%s, peakDepth=%s, limits=%s}".formatted(bytes,
+                decompressedBytes, elements, peakDepth, limits);
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.madethoughts.hope.nbt.deserialization;
+
+/**
+ * Limits enforced while nbt data is read, see {@link NbtBudget}.
+ *
+ * @param maxBytes    the maximum amount of payload bytes decoded, strings and arrays count with their encoded length.
+ *                    Compressed input may not decompress to more bytes either, which is checked while decompressing
+ * @param maxDepth    the maximum nesting depth of compounds and lists, the root compound has a depth of 1
+ * @param maxElements the maximum amount of tags, including declared list elements
+ */
+public record NbtLimits(long maxBytes, int maxDepth, long maxElements) {
+    /**
+     * Used if no limits are given. Only the depth is limited, which protects against stack overflows, all other
+     * sizes are already bounded by the size of the input.
+     */
+    public static final NbtLimits DEFAULT = new NbtLimits(Long.MAX_VALUE, 512, Long.MAX_VALUE);
+
+    /**
+     * Suitable for data sent by clients, like the nbt of items. The byte limit is the same as the vanilla one.
+     */
+    public static final NbtLimits UNTRUSTED = new NbtLimits(2 * 1024 * 1024, 512, 64 * 1024);
+
+    public NbtLimits {
+        if (maxBytes < 0 || maxDepth < 1 || maxElements < 0) {
+            throw new IllegalArgumentException("Limits have to be positive");
+        }
+    }
+
+    /**
+     * @return a new budget accounting a single decode against these limits
+     */
+    public NbtBudget budget() {
+        return new NbtBudget(this);
+    }
+}
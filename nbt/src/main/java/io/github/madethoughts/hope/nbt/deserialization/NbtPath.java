@@ -0,0 +1,51 @@
+package io.github.madethoughts.hope.nbt.deserialization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled path to values inside a compound, used by {@link Projection}.
+ * Paths consist of tag names separated by '.', each name may be followed by "[]" to select all elements of a list,
+ * e.g. {@code sections[].block_states.palette} or {@code Level.Status}. Nested lists use one "[]" per level.
+ *
+ * @param source   the path as string
+ * @param segments the compiled segments
+ */
+public record NbtPath(String source, List<Segment> segments) {
+
+    /**
+     * Compiles a path.
+     *
+     * @param path the path
+     * @return the compiled path
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    public static NbtPath compile(String path) {
+        var segments = new ArrayList<Segment>();
+        for (var part : path.split("\\.", -1)) {
+            var nameEnd = part.length();
+            var listDepth = 0;
+            while (nameEnd >= 2 && part.startsWith("[]", nameEnd - 2)) {
+                nameEnd -= 2;
+                listDepth++;
+            }
+            var name = part.substring(0, nameEnd);
+            if (name.isEmpty() || name.contains("[") || name.contains("]")) {
+                throw new IllegalArgumentException("Malformed segment '%s' in path %s".formatted(part, path));
+            }
+            segments.add(new Segment(name, listDepth));
+        }
+        return new NbtPath(path, List.copyOf(segments));
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * @param name      the tag's name
+     * @param listDepth the amount of list levels whose elements are all selected
+     */
+    public record Segment(String name, int listDepth) {}
+}
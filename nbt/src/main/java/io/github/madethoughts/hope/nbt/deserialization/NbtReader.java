@@ -0,0 +1,423 @@
+package io.github.madethoughts.hope.nbt.deserialization;
+
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.Type;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A pull based reader for uncompressed nbt data, working directly on a {@link MemorySegment}.
+ * Positions are longs, so memory mapped files larger than 2 GB are read in place without copying.
+ * <p>
+ * The reader moves through the data tag by tag. {@link NbtReader#nextTag()} advances to the next tag of the
+ * current compound or list and returns its type, or {@link Type#END} if there are no more tags. The tag's value must
+ * then be consumed by exactly one of the read methods, {@link NbtReader#beginCompound()},
+ * {@link NbtReader#beginList()} or {@link NbtReader#skipValue()}. Skipped values and names aren't decoded and
+ * allocate nothing.
+ * <pre>{@code
+ * var reader = new NbtReader(buffer);
+ * reader.beginRoot(Mode.FILE);
+ * Type type;
+ * while ((type = reader.nextTag()) != Type.END) {
+ *     if (type == Type.INT && reader.nameEquals("DataVersion")) return reader.readInt();
+ *     reader.skipValue();
+ * }
+ * }</pre>
+ * All decoded sizes and the nesting depth are accounted by a {@link NbtBudget}, which fails before anything is
+ * allocated for a value exceeding its limits.
+ */
+public final class NbtReader {
+    private static final int INITIAL_DEPTH = 16;
+
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE =
+            ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final MemorySegment segment;
+    private final long limit;
+    private long position;
+    private final NbtBudget budget;
+
+    // the element type of each entered list, null for compounds
+    private Type[] listTypes = new Type[INITIAL_DEPTH];
+    private int[] listRemaining = new int[INITIAL_DEPTH];
+    private int depth = 0;
+
+    // the tag whose value wasn't consumed yet, null if there is none
+    private Type current;
+    private long nameOffset;
+    private int nameLength;
+
+    /**
+     * Reads the buffer starting at its position with the {@link NbtLimits#DEFAULT} limits.
+     *
+     * @param buffer the uncompressed nbt data
+     * @see NbtReader#NbtReader(ByteBuffer, NbtBudget)
+     */
+    public NbtReader(ByteBuffer buffer) {
+        this(buffer, NbtLimits.DEFAULT.budget());
+    }
+
+    /**
+     * Reads the buffer starting at its position. The buffer's position isn't advanced, {@link NbtReader#position()}
+     * is the index of the next byte inside the buffer instead.
+     *
+     * @param buffer the uncompressed nbt data
+     * @param budget the budget the read data is accounted by
+     */
+    public NbtReader(ByteBuffer buffer, NbtBudget budget) {
+        this(MemorySegment.ofBuffer(buffer.duplicate().position(0)), buffer.position(), budget);
+    }
+
+    /**
+     * @param segment the uncompressed nbt data, read starting at offset 0 with the {@link NbtLimits#DEFAULT} limits
+     */
+    public NbtReader(MemorySegment segment) {
+        this(segment, NbtLimits.DEFAULT.budget());
+    }
+
+    /**
+     * @param segment the uncompressed nbt data, read starting at offset 0
+     * @param budget  the budget the read data is accounted by
+     */
+    public NbtReader(MemorySegment segment, NbtBudget budget) {
+        this(segment, 0, budget);
+    }
+
+    private NbtReader(MemorySegment segment, long position, NbtBudget budget) {
+        this.segment = segment;
+        this.limit = segment.byteSize();
+        this.position = position;
+        this.budget = budget;
+    }
+
+    private NBTDeserializationException error(String msg, Object... args) {
+        return new NBTDeserializationException(position, msg, args);
+    }
+
+    /**
+     * Checks that enough bytes are left and moves past them.
+     *
+     * @param count the amount of bytes
+     * @return the position of the first byte
+     */
+    private long advance(long count) {
+        if (count > limit - position) {
+            throw error("Unexpected end of data, %s bytes required but only %s remaining", count, limit - position);
+        }
+        var start = position;
+        position += count;
+        return start;
+    }
+
+    private int readUnsignedShort() {
+        return Short.toUnsignedInt(segment.get(SHORT, advance(Short.BYTES)));
+    }
+
+    private Type readType() {
+        var id = segment.get(ValueLayout.JAVA_BYTE, advance(Byte.BYTES));
+        try {
+            return Type.byId(id);
+        } catch (IllegalArgumentException e) {
+            throw error("Unknown tag id %s", id);
+        }
+    }
+
+    private int readLength() {
+        var length = segment.get(INT, advance(Integer.BYTES));
+        if (length < 0) throw error("Negative length %s", length);
+        return length;
+    }
+
+    private void consume(Type expected) {
+        if (current == null) throw error("There is no value to read, call nextTag first");
+        if (current != expected) throw error("Expected %s but the current tag is %s", expected, current);
+        current = null;
+        var size = expected.payloadSize();
+        if (size > 0) budget.chargeBytes(position, size);
+    }
+
+    private void push(Type listType, int remaining) {
+        budget.enter(position, depth + 1);
+        if (depth == listTypes.length) {
+            listTypes = Arrays.copyOf(listTypes, depth * 2);
+            listRemaining = Arrays.copyOf(listRemaining, depth * 2);
+        }
+        listTypes[depth] = listType;
+        listRemaining[depth] = remaining;
+        depth++;
+    }
+
+    /**
+     * Reads the root compound's header and enters it. In {@link Mode#FILE} the root's name is available by
+     * {@link NbtReader#name()} until the first call to {@link NbtReader#nextTag()}.
+     *
+     * @param mode the mode of the data
+     */
+    public void beginRoot(Mode mode) {
+        if (readType() != Type.COMPOUND) throw error("NBT Data has to start with a compound");
+        switch (mode) {
+            case NETWORK -> nameLength = 0;
+            case FILE -> {
+                nameLength = readUnsignedShort();
+                nameOffset = advance(nameLength);
+            }
+        }
+        current = Type.COMPOUND;
+        beginCompound();
+    }
+
+    /**
+     * Advances to the next tag of the current compound or list.
+     * If there are no more tags, the compound or list is left and {@link Type#END} is returned.
+     *
+     * @return the type of the next tag or {@link Type#END}
+     */
+    public Type nextTag() {
+        if (current != null) throw error("The value of the current tag %s wasn't consumed", current);
+        if (depth == 0) throw error("There is no compound or list to read from");
+
+        var listType = listTypes[depth - 1];
+        // inside a list
+        if (listType != null) {
+            if (listRemaining[depth - 1]-- == 0) {
+                depth--;
+                return Type.END;
+            }
+            nameLength = 0;
+            current = listType;
+            return listType;
+        }
+
+        // inside a compound
+        var type = readType();
+        if (type == Type.END) {
+            depth--;
+            return Type.END;
+        }
+        budget.chargeElements(position, 1);
+        nameLength = readUnsignedShort();
+        nameOffset = advance(nameLength);
+        current = type;
+        return type;
+    }
+
+    /**
+     * @return the name of the current tag, list elements have an empty name. Common names are interned
+     */
+    public String name() {
+        return nameLength == 0 ? "" : NameTable.name(segment, nameOffset, nameLength);
+    }
+
+    /**
+     * Compares the current tag's name without decoding it, as long as it's ASCII.
+     *
+     * @param expected the expected name
+     * @return whether the current tag's name equals the expected one
+     */
+    public boolean nameEquals(String expected) {
+        for (var i = 0; i < nameLength; i++) {
+            var b = segment.get(ValueLayout.JAVA_BYTE, nameOffset + i);
+            if (b < 0) return name().equals(expected);
+            if (i >= expected.length() || expected.charAt(i) != b) return false;
+        }
+        return nameLength == expected.length();
+    }
+
+    /**
+     * @return the amount of elements left in the current list
+     */
+    public int remaining() {
+        if (depth == 0 || listTypes[depth - 1] == null) throw error("The reader isn't inside a list");
+        return listRemaining[depth - 1];
+    }
+
+    /**
+     * @return the amount of bytes left, capped at {@link Integer#MAX_VALUE}
+     */
+    int remainingBytes() {
+        return (int) Math.min(limit - position, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the offset of the next byte to be read, relative to the start of the segment or buffer
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * @return the budget the read data is accounted by
+     */
+    public NbtBudget budget() {
+        return budget;
+    }
+
+    /**
+     * @return the current tag's type or null if its value was consumed already
+     */
+    public Type currentType() {
+        return current;
+    }
+
+    public byte readByte() {
+        consume(Type.BYTE);
+        return segment.get(ValueLayout.JAVA_BYTE, advance(Byte.BYTES));
+    }
+
+    public short readShort() {
+        consume(Type.SHORT);
+        return segment.get(SHORT, advance(Short.BYTES));
+    }
+
+    public int readInt() {
+        consume(Type.INT);
+        return segment.get(INT, advance(Integer.BYTES));
+    }
+
+    public long readLong() {
+        consume(Type.LONG);
+        return segment.get(LONG, advance(Long.BYTES));
+    }
+
+    public float readFloat() {
+        consume(Type.FLOAT);
+        return segment.get(FLOAT, advance(Float.BYTES));
+    }
+
+    public double readDouble() {
+        consume(Type.DOUBLE);
+        return segment.get(DOUBLE, advance(Double.BYTES));
+    }
+
+    public String readString() {
+        consume(Type.STRING);
+        var length = readUnsignedShort();
+        budget.chargeBytes(position, length);
+        return NameTable.decode(segment, advance(length), length);
+    }
+
+    public byte[] readByteArray() {
+        consume(Type.BYTE_ARRAY);
+        var length = readLength();
+        // the length is checked before allocating, so bogus lengths fail early
+        budget.chargeBytes(position, length);
+        var offset = advance(length);
+        var bytes = new byte[length];
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset, bytes, 0, length);
+        return bytes;
+    }
+
+    public int[] readIntArray() {
+        consume(Type.INT_ARRAY);
+        var length = readLength();
+        budget.chargeBytes(position, (long) length * Integer.BYTES);
+        var offset = advance((long) length * Integer.BYTES);
+        var ints = new int[length];
+        MemorySegment.copy(segment, INT, offset, ints, 0, length);
+        return ints;
+    }
+
+    public long[] readLongArray() {
+        consume(Type.LONG_ARRAY);
+        var length = readLength();
+        budget.chargeBytes(position, (long) length * Long.BYTES);
+        var offset = advance((long) length * Long.BYTES);
+        var longs = new long[length];
+        MemorySegment.copy(segment, LONG, offset, longs, 0, length);
+        return longs;
+    }
+
+    /**
+     * Enters the current compound, its tags are read by {@link NbtReader#nextTag()}.
+     */
+    public void beginCompound() {
+        consume(Type.COMPOUND);
+        push(null, 0);
+    }
+
+    /**
+     * Enters the current list, its elements are read by {@link NbtReader#nextTag()}.
+     *
+     * @return the type of the list's elements, {@link Type#END} for empty lists
+     */
+    public Type beginList() {
+        consume(Type.LIST);
+        var type = readType();
+        var length = readLength();
+        if (type == Type.END && length > 0) throw error("List of %s TAG_END elements", length);
+        // charged up front, since readers preallocate lists by their length
+        budget.chargeElements(position, length);
+        push(type, length);
+        return type;
+    }
+
+    /**
+     * Enters the payload of a compound or list starting at the reader's position, without a preceding tag header.
+     * This allows to continue reading at the offset of a value skipped before.
+     *
+     * @param type {@link Type#COMPOUND} or {@link Type#LIST}
+     */
+    public void beginPayload(Type type) {
+        if (current != null) throw error("The value of the current tag %s wasn't consumed", current);
+        current = type;
+        switch (type) {
+            case COMPOUND -> beginCompound();
+            case LIST -> beginList();
+            default -> {
+                current = null;
+                throw new IllegalArgumentException("Only compounds and lists can be entered, got %s".formatted(type));
+            }
+        }
+    }
+
+    /**
+     * Skips the current tag's value without decoding it.
+     */
+    public void skipValue() {
+        var type = current;
+        if (type == null) throw error("There is no value to skip, call nextTag first");
+        current = null;
+        skip(type, depth);
+    }
+
+    /**
+     * @param depth the depth of the skipped value's parent, nested values still count towards the depth limit
+     */
+    private void skip(Type type, int depth) {
+        switch (type) {
+            case END -> throw error("TAG_END isn't allowed to be wrapped in a named tag");
+            case BYTE, SHORT, INT, LONG, FLOAT, DOUBLE -> advance(type.payloadSize());
+            case BYTE_ARRAY -> advance(readLength());
+            case INT_ARRAY -> advance((long) readLength() * Integer.BYTES);
+            case LONG_ARRAY -> advance((long) readLength() * Long.BYTES);
+            case STRING -> advance(readUnsignedShort());
+            case LIST -> {
+                budget.enter(position, depth + 1);
+                var elementType = readType();
+                var length = readLength();
+                var size = elementType.payloadSize();
+                if (size > 0) {
+                    advance((long) length * size);
+                } else {
+                    for (var i = 0; i < length; i++) skip(elementType, depth + 1);
+                }
+            }
+            case COMPOUND -> {
+                budget.enter(position, depth + 1);
+                Type entryType;
+                while ((entryType = readType()) != Type.END) {
+                    advance(readUnsignedShort());
+                    skip(entryType, depth + 1);
+                }
+            }
+        }
+    }
+}
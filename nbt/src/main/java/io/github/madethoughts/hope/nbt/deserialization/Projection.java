@@ -0,0 +1,202 @@
+package io.github.madethoughts.hope.nbt.deserialization;
+
+import io.github.madethoughts.hope.nbt.Compression;
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.tree.Tag;
+import io.github.madethoughts.hope.nbt.tree.TagCompound;
+import io.github.madethoughts.hope.nbt.tree.TagList;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the values of a set of {@link NbtPath}s in one pass over the data.
+ * The paths are compiled into a trie, subtrees not on any path are skipped by their length prefixes without being
+ * decoded. Only the matched values are materialized into tags.
+ * Projections are immutable and can be shared between threads.
+ */
+public final class Projection {
+    // above this amount of children, names are decoded for a hash lookup instead of compared one by one
+    private static final int LINEAR_CHILDREN = 8;
+
+    private final Node root = new Node();
+    private final List<NbtPath> paths;
+
+    private Projection(List<NbtPath> paths) {
+        this.paths = paths.stream().distinct().toList();
+        for (var path : this.paths) {
+            var node = root;
+            for (var segment : path.segments()) {
+                node = node.children.computeIfAbsent(segment.name(), _ -> new Node());
+                for (var i = 0; i < segment.listDepth(); i++) {
+                    if (node.elements == null) node.elements = new Node();
+                    node = node.elements;
+                }
+            }
+            node.terminals.add(path);
+        }
+    }
+
+    /**
+     * @param paths the paths to extract
+     * @return the projection
+     */
+    public static Projection of(NbtPath... paths) {
+        return new Projection(List.of(paths));
+    }
+
+    /**
+     * @param paths the paths to extract, see {@link NbtPath#compile(String)}
+     * @return the projection
+     */
+    public static Projection of(String... paths) {
+        return new Projection(Arrays.stream(paths).map(NbtPath::compile).toList());
+    }
+
+    /**
+     * Extracts the values of all paths from the given, perhaps compressed data.
+     *
+     * @param mode        the mode to be used
+     * @param compression the type of compression to be used
+     * @param buffer      the data
+     * @return the extracted values
+     */
+    public Result extract(Mode mode, Compression compression, ByteBuffer buffer) {
+        ByteBuffer data;
+        try {
+            data = Decompression.decompress(compression, buffer, true, null);
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new NBTDeserializationException("An Exception occurred during decompression", e);
+        }
+
+        try {
+            var reader = new NbtReader(data);
+            reader.beginRoot(mode);
+            var result = new Result(paths);
+            compound(reader, root, result);
+            return result;
+        } finally {
+            if (compression != Compression.NONE) Decompression.release(data);
+        }
+    }
+
+    private void compound(NbtReader reader, Node node, Result result) {
+        Type type;
+        while ((type = reader.nextTag()) != Type.END) {
+            var child = child(reader, node);
+            if (child == null) {
+                reader.skipValue();
+            } else {
+                visit(reader, type, child, result);
+            }
+        }
+    }
+
+    private Node child(NbtReader reader, Node node) {
+        if (node.children.size() > LINEAR_CHILDREN) return node.children.get(reader.name());
+        for (var entry : node.children.entrySet()) {
+            if (reader.nameEquals(entry.getKey())) return entry.getValue();
+        }
+        return null;
+    }
+
+    private void visit(NbtReader reader, Type type, Node node, Result result) {
+        if (!node.terminals.isEmpty()) {
+            // a complete value is needed anyway, deeper paths are collected from its tree
+            var tag = Deserializer.deserialize(reader, type);
+            collect(tag, node, result);
+            return;
+        }
+
+        if (type == Type.COMPOUND && !node.children.isEmpty()) {
+            reader.beginCompound();
+            compound(reader, node, result);
+        } else if (type == Type.LIST && node.elements != null) {
+            reader.beginList();
+            Type elementType;
+            while ((elementType = reader.nextTag()) != Type.END) {
+                visit(reader, elementType, node.elements, result);
+            }
+        } else {
+            reader.skipValue();
+        }
+    }
+
+    private void collect(Tag tag, Node node, Result result) {
+        for (var path : node.terminals) result.add(path, tag);
+
+        switch (tag) {
+            case TagCompound(var values) -> node.children.forEach((name, child) -> {
+                var value = values.get(name);
+                if (value != null) collect(value, child, result);
+            });
+            case TagList(var values) when node.elements != null -> {
+                for (var value : values) collect(value, node.elements, result);
+            }
+            default -> {}
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<NbtPath> terminals = new ArrayList<>(1);
+        private Node elements;
+    }
+
+    /**
+     * The values extracted by a projection, in the order they appeared in the data.
+     */
+    public static final class Result {
+        private final Map<NbtPath, List<Tag>> values = new LinkedHashMap<>();
+
+        private Result(List<NbtPath> paths) {
+            for (var path : paths) values.put(path, new ArrayList<>(1));
+        }
+
+        private void add(NbtPath path, Tag tag) {
+            values.get(path).add(tag);
+        }
+
+        /**
+         * @param path the path, must be part of the projection
+         * @return all values matching the path, empty if there is none
+         */
+        public List<Tag> get(NbtPath path) {
+            var tags = values.get(path);
+            if (tags == null) throw new IllegalArgumentException("Path %s isn't part of the projection".formatted(path));
+            return tags;
+        }
+
+        /**
+         * @param path the path as string, must be part of the projection
+         * @return all values matching the path, empty if there is none
+         */
+        public List<Tag> get(String path) {
+            return get(NbtPath.compile(path));
+        }
+
+        /**
+         * @param path the path, must be part of the projection
+         * @return the first value matching the path or null if there is none
+         */
+        public Tag first(NbtPath path) {
+            var tags = get(path);
+            return tags.isEmpty() ? null : tags.getFirst();
+        }
+
+        /**
+         * @return all paths of the projection with their values
+         */
+        public Map<NbtPath, List<Tag>> asMap() {
+            return values;
+        }
+    }
+}
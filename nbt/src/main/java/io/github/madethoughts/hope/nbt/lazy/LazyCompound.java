@@ -0,0 +1,152 @@
+package io.github.madethoughts.hope.nbt.lazy;
+
+import io.github.madethoughts.hope.nbt.Compression;
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.deserialization.Deserializer;
+import io.github.madethoughts.hope.nbt.deserialization.NbtReader;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read only view of a compound inside a buffer of nbt data.
+ * On first access, the compound indexes the offsets of its children, whose values are only decoded when they are
+ * read. Nested compounds and lists are views as well and arrays are exposed as big endian views of the buffer, so
+ * nothing is copied.
+ * <p>
+ * The views reference the backing buffer, which must not be modified while they are in use. Views aren't thread
+ * safe.
+ */
+public final class LazyCompound {
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    private Map<String, Entry> entries;
+
+    LazyCompound(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    /**
+     * Creates a view of the root compound of the given, perhaps compressed nbt data.
+     * The root's name is skipped.
+     *
+     * @param mode        the mode to be used
+     * @param compression the type of compression to be used
+     * @param buffer      the buffer, read starting at its position
+     * @return the view of the root compound
+     */
+    public static LazyCompound root(Mode mode, Compression compression, ByteBuffer buffer) {
+        var data = Deserializer.decompress(compression, buffer).duplicate().order(ByteOrder.BIG_ENDIAN);
+        var reader = new NbtReader(data);
+        reader.beginRoot(mode);
+        return new LazyCompound(data, (int) reader.position());
+    }
+
+    private Map<String, Entry> entries() {
+        if (entries != null) return entries;
+
+        var reader = new NbtReader(buffer.duplicate().position(offset));
+        reader.beginPayload(Type.COMPOUND);
+
+        var entries = new HashMap<String, Entry>();
+        Type type;
+        while ((type = reader.nextTag()) != Type.END) {
+            entries.put(reader.name(), new Entry(type, (int) reader.position()));
+            reader.skipValue();
+        }
+        return this.entries = entries;
+    }
+
+    private int offset(String name, Type expected) {
+        var entry = entries().get(name);
+        if (entry == null) throw new NoSuchElementException("No tag named %s".formatted(name));
+        Payloads.checkType(entry.type(), expected, name);
+        return entry.offset();
+    }
+
+    /**
+     * @return the names of all tags in this compound
+     */
+    public Set<String> names() {
+        return entries().keySet();
+    }
+
+    /**
+     * @return the amount of tags in this compound
+     */
+    public int size() {
+        return entries().size();
+    }
+
+    public boolean contains(String name) {
+        return entries().containsKey(name);
+    }
+
+    /**
+     * @param name the name of the tag
+     * @return the type of the tag or null if there is no tag with this name
+     */
+    public Type type(String name) {
+        var entry = entries().get(name);
+        return entry != null ? entry.type() : null;
+    }
+
+    public byte getByte(String name) {
+        return buffer.get(offset(name, Type.BYTE));
+    }
+
+    public short getShort(String name) {
+        return buffer.getShort(offset(name, Type.SHORT));
+    }
+
+    public int getInt(String name) {
+        return buffer.getInt(offset(name, Type.INT));
+    }
+
+    public long getLong(String name) {
+        return buffer.getLong(offset(name, Type.LONG));
+    }
+
+    public float getFloat(String name) {
+        return buffer.getFloat(offset(name, Type.FLOAT));
+    }
+
+    public double getDouble(String name) {
+        return buffer.getDouble(offset(name, Type.DOUBLE));
+    }
+
+    public String getString(String name) {
+        return Payloads.string(buffer, offset(name, Type.STRING));
+    }
+
+    public ByteBuffer getByteArray(String name) {
+        return Payloads.byteArray(buffer, offset(name, Type.BYTE_ARRAY));
+    }
+
+    public IntBuffer getIntArray(String name) {
+        return Payloads.intArray(buffer, offset(name, Type.INT_ARRAY));
+    }
+
+    public LongBuffer getLongArray(String name) {
+        return Payloads.longArray(buffer, offset(name, Type.LONG_ARRAY));
+    }
+
+    public LazyCompound getCompound(String name) {
+        return new LazyCompound(buffer, offset(name, Type.COMPOUND));
+    }
+
+    public LazyList getList(String name) {
+        return new LazyList(buffer, offset(name, Type.LIST));
+    }
+
+    private record Entry(Type type, int offset) {}
+}
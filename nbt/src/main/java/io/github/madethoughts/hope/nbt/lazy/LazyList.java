@@ -0,0 +1,111 @@
+package io.github.madethoughts.hope.nbt.lazy;
+
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.deserialization.NbtReader;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Objects;
+
+/**
+ * A read only view of a list inside a buffer of nbt data, see {@link LazyCompound}.
+ * Elements of a fixed size are located by their index, the offsets of other elements are indexed on first access.
+ */
+public final class LazyList {
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final Type elementType;
+    private final int size;
+
+    private int[] offsets;
+
+    LazyList(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.elementType = Type.byId(buffer.get(offset));
+        this.size = buffer.getInt(offset + 1);
+    }
+
+    private int offset(int index, Type expected) {
+        Objects.checkIndex(index, size);
+        Payloads.checkType(elementType, expected, index);
+
+        var payloadSize = elementType.payloadSize();
+        // type id and length
+        var start = offset + 1 + Integer.BYTES;
+        if (payloadSize > 0) return start + index * payloadSize;
+
+        if (offsets == null) {
+            var reader = new NbtReader(buffer.duplicate().position(offset));
+            reader.beginPayload(Type.LIST);
+
+            var offsets = new int[size];
+            for (var i = 0; reader.nextTag() != Type.END; i++) {
+                offsets[i] = (int) reader.position();
+                reader.skipValue();
+            }
+            this.offsets = offsets;
+        }
+        return offsets[index];
+    }
+
+    /**
+     * @return the type of this list's elements, {@link Type#END} for empty lists
+     */
+    public Type elementType() {
+        return elementType;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte getByte(int index) {
+        return buffer.get(offset(index, Type.BYTE));
+    }
+
+    public short getShort(int index) {
+        return buffer.getShort(offset(index, Type.SHORT));
+    }
+
+    public int getInt(int index) {
+        return buffer.getInt(offset(index, Type.INT));
+    }
+
+    public long getLong(int index) {
+        return buffer.getLong(offset(index, Type.LONG));
+    }
+
+    public float getFloat(int index) {
+        return buffer.getFloat(offset(index, Type.FLOAT));
+    }
+
+    public double getDouble(int index) {
+        return buffer.getDouble(offset(index, Type.DOUBLE));
+    }
+
+    public String getString(int index) {
+        return Payloads.string(buffer, offset(index, Type.STRING));
+    }
+
+    public ByteBuffer getByteArray(int index) {
+        return Payloads.byteArray(buffer, offset(index, Type.BYTE_ARRAY));
+    }
+
+    public IntBuffer getIntArray(int index) {
+        return Payloads.intArray(buffer, offset(index, Type.INT_ARRAY));
+    }
+
+    public LongBuffer getLongArray(int index) {
+        return Payloads.longArray(buffer, offset(index, Type.LONG_ARRAY));
+    }
+
+    public LazyCompound getCompound(int index) {
+        return new LazyCompound(buffer, offset(index, Type.COMPOUND));
+    }
+
+    public LazyList getList(int index) {
+        return new LazyList(buffer, offset(index, Type.LIST));
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.madethoughts.hope.nbt.lazy;
+
+import io.github.madethoughts.hope.nbt.ModifiedUtf8;
+import io.github.madethoughts.hope.nbt.Type;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Decodes single payloads at absolute offsets of a big endian buffer, shared by the lazy views.
+ */
+final class Payloads {
+
+    private Payloads() {}
+
+    static void checkType(Type actual, Type expected, Object key) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("Tag %s is a %s, not a %s".formatted(key, actual, expected));
+        }
+    }
+
+    static String string(ByteBuffer buffer, int offset) {
+        // unsigned short
+        int length = buffer.getChar(offset);
+        return ModifiedUtf8.decode(buffer, offset + Short.BYTES, length);
+    }
+
+    private static ByteBuffer arraySlice(ByteBuffer buffer, int offset, int elementSize) {
+        var length = buffer.getInt(offset);
+        return buffer.slice(offset + Integer.BYTES, length * elementSize).asReadOnlyBuffer();
+    }
+
+    static ByteBuffer byteArray(ByteBuffer buffer, int offset) {
+        return arraySlice(buffer, offset, Byte.BYTES);
+    }
+
+    static IntBuffer intArray(ByteBuffer buffer, int offset) {
+        // slices are always big endian
+        return arraySlice(buffer, offset, Integer.BYTES).asIntBuffer();
+    }
+
+    static LongBuffer longArray(ByteBuffer buffer, int offset) {
+        return arraySlice(buffer, offset, Long.BYTES).asLongBuffer();
+    }
+}
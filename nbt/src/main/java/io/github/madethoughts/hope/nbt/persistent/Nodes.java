@@ -0,0 +1,110 @@
+package io.github.madethoughts.hope.nbt.persistent;
+
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+import io.github.madethoughts.hope.nbt.serialization.Serializer;
+import io.github.madethoughts.hope.nbt.tree.Tag;
+import io.github.madethoughts.hope.nbt.tree.TagCompound;
+import io.github.madethoughts.hope.nbt.tree.TagList;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for the values of persistent nodes, which are either leaf tags or persistent nodes.
+ */
+final class Nodes {
+
+    private Nodes() {}
+
+    /**
+     * @param tag the tag
+     * @return the tag itself or, for compounds and lists, a persistent node
+     */
+    static Object wrap(Tag tag) {
+        return switch (tag) {
+            case TagCompound compound -> PersistentCompound.of(compound);
+            case TagList list -> PersistentList.of(list);
+            default -> tag;
+        };
+    }
+
+    static Tag unwrap(Object value) {
+        return value instanceof PersistentNode node ? node.toTree() : (Tag) value;
+    }
+
+    static Type type(Object value) {
+        return switch (value) {
+            case PersistentCompound _ -> Type.COMPOUND;
+            case PersistentList _ -> Type.LIST;
+            default -> Type.of((Tag) value);
+        };
+    }
+
+    /**
+     * Encodes the node and caches the encoding of it and all nodes encoded along with it, which share its bytes.
+     *
+     * @param node the node
+     * @return the node's encoding
+     */
+    static Encoding encode(PersistentNode node) {
+        var writer = NbtWriter.growable(64);
+        var pending = new ArrayList<Pending>();
+        writePayload(writer, node, pending);
+
+        // racing threads compute equal encodings, so there is no need to synchronize
+        var bytes = writer.toByteArray();
+        for (var encoded : pending) cache(encoded.node(), new Encoding(bytes, encoded.offset(), encoded.length()));
+        var encoding = new Encoding(bytes, 0, bytes.length);
+        cache(node, encoding);
+        return encoding;
+    }
+
+    static void write(NbtWriter writer, Object value, List<Pending> pending) {
+        if (!(value instanceof PersistentNode node)) {
+            Serializer.writePayload(writer, (Tag) value);
+            return;
+        }
+
+        var cached = switch (node) {
+            case PersistentCompound compound -> compound.encoding();
+            case PersistentList list -> list.encoding();
+        };
+        if (cached != null) {
+            writer.writeRaw(cached.buffer());
+            return;
+        }
+        var start = writer.buffer().position();
+        writePayload(writer, node, pending);
+        pending.add(new Pending(node, start, writer.buffer().position() - start));
+    }
+
+    private static void writePayload(NbtWriter writer, PersistentNode node, List<Pending> pending) {
+        switch (node) {
+            case PersistentCompound compound -> compound.writePayload(writer, pending);
+            case PersistentList list -> list.writePayload(writer, pending);
+        }
+    }
+
+    private static void cache(PersistentNode node, Encoding encoding) {
+        switch (node) {
+            case PersistentCompound compound -> compound.encoding(encoding);
+            case PersistentList list -> list.encoding(encoding);
+        }
+    }
+
+    /**
+     * The cached payload of a node, a slice of the bytes it was encoded with.
+     */
+    record Encoding(byte[] bytes, int offset, int length) {
+        ByteBuffer buffer() {
+            return ByteBuffer.wrap(bytes, offset, length).slice().asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * A node encoded along with another one, whose bytes are only known once the other one is complete.
+     */
+    record Pending(PersistentNode node, int offset, int length) {}
+}
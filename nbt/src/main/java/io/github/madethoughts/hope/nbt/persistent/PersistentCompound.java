@@ -0,0 +1,203 @@
+package io.github.madethoughts.hope.nbt.persistent;
+
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+import io.github.madethoughts.hope.nbt.tree.CompactMap;
+import io.github.madethoughts.hope.nbt.tree.RootCompound;
+import io.github.madethoughts.hope.nbt.tree.Tag;
+import io.github.madethoughts.hope.nbt.tree.TagCompound;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * An immutable compound with copy-on-write updates, see {@link PersistentNode}.
+ */
+public final class PersistentCompound implements PersistentNode {
+    public static final PersistentCompound EMPTY = new PersistentCompound(new CompactMap<>(0));
+
+    static {
+        // encoded up front, so the shared instance never keeps a slice of another tree's bytes
+        EMPTY.encoded();
+    }
+
+    // never modified after construction
+    private final CompactMap<Object> values;
+    private volatile Nodes.Encoding encoding;
+
+    private PersistentCompound(CompactMap<Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * @param tree the tree
+     * @return a persistent copy of the tree
+     */
+    public static PersistentCompound of(TagCompound tree) {
+        var values = new CompactMap<>(tree.values().size());
+        tree.values().forEach((name, tag) -> values.put(name, Nodes.wrap(tag)));
+        return new PersistentCompound(values);
+    }
+
+    private PersistentCompound with(String name, Object value) {
+        if (values.get(name) == value) return this;
+        var copy = new CompactMap<>(values.size() + 1);
+        copy.putAll(values);
+        copy.put(name, value);
+        return new PersistentCompound(copy);
+    }
+
+    /**
+     * @param name  the tag's name
+     * @param value the new value, compounds and lists are copied into persistent nodes
+     * @return a compound with the updated tag, sharing all other tags with this one
+     */
+    public PersistentCompound with(String name, Tag value) {
+        return with(name, Nodes.wrap(value));
+    }
+
+    /**
+     * @param name  the tag's name
+     * @param value the new value
+     * @return a compound with the updated tag, sharing all other tags with this one
+     */
+    public PersistentCompound with(String name, PersistentNode value) {
+        return with(name, (Object) value);
+    }
+
+    /**
+     * @param name the tag's name
+     * @return a compound without the tag, sharing all other tags with this one
+     */
+    public PersistentCompound without(String name) {
+        if (!values.containsKey(name)) return this;
+        var copy = new CompactMap<>(values.size());
+        copy.putAll(values);
+        copy.remove(name);
+        return new PersistentCompound(copy);
+    }
+
+    /**
+     * Updates a nested compound, only the compounds on the path are copied. Missing compounds are created.
+     *
+     * @param path   the names of the nested compounds, separated by '.'
+     * @param update the update of the nested compound
+     * @return a compound with the updated nested compound
+     */
+    public PersistentCompound update(String path, UnaryOperator<PersistentCompound> update) {
+        var separator = path.indexOf('.');
+        var name = separator < 0 ? path : path.substring(0, separator);
+        var child = values.get(name) instanceof PersistentCompound compound ? compound : EMPTY;
+        var updated = separator < 0 ? update.apply(child) : child.update(path.substring(separator + 1), update);
+        return with(name, (Object) updated);
+    }
+
+    /**
+     * Sets a tag of a nested compound, see {@link PersistentCompound#update(String, UnaryOperator)}.
+     *
+     * @param path  the path of the tag, names separated by '.'
+     * @param value the new value
+     * @return a compound with the updated tag
+     */
+    public PersistentCompound withPath(String path, Tag value) {
+        var separator = path.lastIndexOf('.');
+        if (separator < 0) return with(path, value);
+        return update(path.substring(0, separator), compound -> compound.with(path.substring(separator + 1), value));
+    }
+
+    public Set<String> names() {
+        return values.keySet();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * @param name the tag's name
+     * @return the tag's type or null if there is no such tag
+     */
+    public Type type(String name) {
+        var value = values.get(name);
+        return value != null ? Nodes.type(value) : null;
+    }
+
+    /**
+     * @param name the tag's name
+     * @return the tag, compounds and lists are copied into trees
+     */
+    public Tag tag(String name) {
+        return Nodes.unwrap(value(name));
+    }
+
+    public PersistentCompound getCompound(String name) {
+        return (PersistentCompound) value(name);
+    }
+
+    public PersistentList getList(String name) {
+        return (PersistentList) value(name);
+    }
+
+    private Object value(String name) {
+        var value = values.get(name);
+        if (value == null) throw new NoSuchElementException("No tag named %s".formatted(name));
+        return value;
+    }
+
+    @Override
+    public ByteBuffer encoded() {
+        var cached = encoding;
+        if (cached == null) cached = Nodes.encode(this);
+        return cached.buffer();
+    }
+
+    Nodes.Encoding encoding() {
+        return encoding;
+    }
+
+    void encoding(Nodes.Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    void writePayload(NbtWriter writer, List<Nodes.Pending> pending) {
+        values.forEach((name, value) -> {
+            writer.writeHeader(Nodes.type(value), name);
+            Nodes.write(writer, value, pending);
+        });
+        writer.writeEnd();
+    }
+
+    /**
+     * Serializes this compound as uncompressed root compound, reusing all cached encodings.
+     *
+     * @param mode the mode to be used
+     * @param name the root's name, omitted in {@link Mode#NETWORK}
+     * @return the serialized bytes
+     */
+    public byte[] serialize(Mode mode, String name) {
+        var payload = encoded();
+        var writer = NbtWriter.growable(payload.remaining() + NbtWriter.encodedLength(name) + 3);
+        writer.writeRoot(mode, name);
+        writer.writeRaw(payload);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public TagCompound toTree() {
+        var tree = new CompactMap<Tag>(values.size());
+        values.forEach((name, value) -> tree.put(name, Nodes.unwrap(value)));
+        return new TagCompound(tree);
+    }
+
+    /**
+     * @param name the root's name
+     * @return this compound as mutable root tree
+     */
+    public RootCompound toRoot(String name) {
+        return new RootCompound(name, toTree());
+    }
+}
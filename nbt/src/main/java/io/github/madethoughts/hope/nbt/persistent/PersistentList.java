@@ -0,0 +1,147 @@
+package io.github.madethoughts.hope.nbt.persistent;
+
+import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+import io.github.madethoughts.hope.nbt.tree.Tag;
+import io.github.madethoughts.hope.nbt.tree.TagList;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable list with copy-on-write updates, see {@link PersistentNode}.
+ */
+public final class PersistentList implements PersistentNode {
+    public static final PersistentList EMPTY = new PersistentList(Type.END, List.of());
+
+    static {
+        // encoded up front, so the shared instance never keeps a slice of another tree's bytes
+        EMPTY.encoded();
+    }
+
+    private final Type elementType;
+    // never modified after construction
+    private final List<Object> elements;
+    private volatile Nodes.Encoding encoding;
+
+    private PersistentList(Type elementType, List<Object> elements) {
+        this.elementType = elementType;
+        this.elements = elements;
+    }
+
+    /**
+     * @param tree the tree
+     * @return a persistent copy of the tree
+     */
+    public static PersistentList of(TagList tree) {
+        if (tree.values().isEmpty()) return EMPTY;
+        var elements = new ArrayList<>(tree.values().size());
+        for (var tag : tree.values()) elements.add(Nodes.wrap(tag));
+        return new PersistentList(Type.of(tree.values().getFirst()), elements);
+    }
+
+    private PersistentList with(int index, Object value, boolean insert) {
+        var type = Nodes.type(value);
+        if (!elements.isEmpty() && type != elementType) {
+            throw new IllegalArgumentException("Can't add a %s to a list of %s".formatted(type, elementType));
+        }
+        var copy = new ArrayList<>(elements.size() + 1);
+        copy.addAll(elements);
+        if (insert) {
+            copy.add(index, value);
+        } else {
+            copy.set(index, value);
+        }
+        return new PersistentList(type, copy);
+    }
+
+    /**
+     * @param index the index
+     * @param value the new element, must be of the list's element type
+     * @return a list with the replaced element, sharing all other elements with this one
+     */
+    public PersistentList with(int index, Tag value) {
+        return with(index, Nodes.wrap(value), false);
+    }
+
+    public PersistentList with(int index, PersistentNode value) {
+        return with(index, value, false);
+    }
+
+    /**
+     * @param value the new element, must be of the list's element type
+     * @return a list with the appended element, sharing all other elements with this one
+     */
+    public PersistentList append(Tag value) {
+        return with(elements.size(), Nodes.wrap(value), true);
+    }
+
+    public PersistentList append(PersistentNode value) {
+        return with(elements.size(), value, true);
+    }
+
+    /**
+     * @param index the index
+     * @return a list without the element, sharing all other elements with this one
+     */
+    public PersistentList without(int index) {
+        var copy = new ArrayList<>(elements);
+        copy.remove(index);
+        return copy.isEmpty() ? EMPTY : new PersistentList(elementType, copy);
+    }
+
+    /**
+     * @return the type of the elements, {@link Type#END} for empty lists
+     */
+    public Type elementType() {
+        return elementType;
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * @param index the index
+     * @return the element, compounds and lists are copied into trees
+     */
+    public Tag tag(int index) {
+        return Nodes.unwrap(elements.get(index));
+    }
+
+    public PersistentCompound getCompound(int index) {
+        return (PersistentCompound) elements.get(index);
+    }
+
+    public PersistentList getList(int index) {
+        return (PersistentList) elements.get(index);
+    }
+
+    @Override
+    public ByteBuffer encoded() {
+        var cached = encoding;
+        if (cached == null) cached = Nodes.encode(this);
+        return cached.buffer();
+    }
+
+    Nodes.Encoding encoding() {
+        return encoding;
+    }
+
+    void encoding(Nodes.Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    void writePayload(NbtWriter writer, List<Nodes.Pending> pending) {
+        writer.writeListHeader(elementType, elements.size());
+        for (var element : elements) Nodes.write(writer, element, pending);
+    }
+
+    @Override
+    public TagList toTree() {
+        var tree = new ArrayList<Tag>(elements.size());
+        for (var element : elements) tree.add(Nodes.unwrap(element));
+        return new TagList(tree);
+    }
+}
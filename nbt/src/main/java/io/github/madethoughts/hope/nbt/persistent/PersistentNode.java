@@ -0,0 +1,40 @@
+package io.github.madethoughts.hope.nbt.persistent;
+
+import io.github.madethoughts.hope.nbt.serialization.NbtWriter;
+import io.github.madethoughts.hope.nbt.tree.Tag;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An immutable compound or list, that keeps its encoded payload once it was serialized.
+ * Updates return new nodes and share all unchanged children, so only the nodes on the path to a change have to be
+ * encoded again.
+ * <p>
+ * A tree is encoded into a single array: the nodes encoded together with the serialized node only keep a slice of
+ * its bytes, so a serialized tree costs its encoded size once rather than once per level. Unchanged children shared
+ * with an updated tree keep their slice of the previous encoding, which therefore stays reachable as long as any of
+ * its nodes is.
+ * <p>
+ * Arrays of leaf tags must not be modified after they were added, since their encoding might be cached already.
+ */
+public sealed interface PersistentNode permits PersistentCompound, PersistentList {
+
+    /**
+     * @return a read only view of the encoded payload of this node, computed on first use and cached afterward
+     */
+    ByteBuffer encoded();
+
+    /**
+     * Writes the payload of this node, copying the cached encoding.
+     *
+     * @param writer the writer
+     */
+    default void writeTo(NbtWriter writer) {
+        writer.writeRaw(encoded());
+    }
+
+    /**
+     * @return this node as mutable tree
+     */
+    Tag toTree();
+}
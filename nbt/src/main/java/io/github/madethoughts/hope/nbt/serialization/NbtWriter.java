@@ -0,0 +1,232 @@
+package io.github.madethoughts.hope.nbt.serialization;
+
+import io.github.madethoughts.hope.nbt.Mode;
+import io.github.madethoughts.hope.nbt.ModifiedUtf8;
+import io.github.madethoughts.hope.nbt.Type;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static java.util.FormatProcessor.FMT;
+
+/**
+ * A push based writer for uncompressed nbt data, writing directly into a {@link ByteBuffer}.
+ * <p>
+ * Named tags are written as {@link NbtWriter#writeHeader(Type, String)} followed by their payload, list elements
+ * only consist of their payload. Compounds end with {@link NbtWriter#writeEnd()}.
+ * <pre>{@code
+ * writer.writeRoot(Mode.NETWORK, "");
+ * writer.writeHeader(Type.INT, "DataVersion");
+ * writer.writeInt(3700);
+ * writer.writeEnd();
+ * }</pre>
+ * The writer either writes into a fixed buffer, throwing a {@link BufferOverflowException} if it's too small,
+ * or into an own buffer that grows as needed.
+ */
+public final class NbtWriter {
+    private static final int MAX_STRING_LENGTH = Short.MAX_VALUE;
+
+    private final boolean growable;
+    private ByteBuffer buffer;
+
+    private NbtWriter(ByteBuffer buffer, boolean growable) {
+        this.buffer = buffer;
+        this.growable = growable;
+    }
+
+    /**
+     * Writes into a big endian view of the target, so neither the order nor the position of the target are changed.
+     * The written length is given by the position of {@link NbtWriter#buffer()}.
+     *
+     * @param target the buffer to write into, starting at its position
+     * @return a writer writing into the given buffer
+     */
+    public static NbtWriter of(ByteBuffer target) {
+        return new NbtWriter(target.duplicate().order(ByteOrder.BIG_ENDIAN), false);
+    }
+
+    /**
+     * @param initialCapacity the initial capacity of the writer's buffer
+     * @return a writer writing into an own heap buffer, which grows as needed
+     */
+    public static NbtWriter growable(int initialCapacity) {
+        return new NbtWriter(ByteBuffer.allocate(Math.max(initialCapacity, 16)), true);
+    }
+
+    /**
+     * @return the buffer written into, its position is behind the last written byte. Growable writers may replace
+     * their buffer while writing
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Calculates the length of the given string in the {@link ModifiedUtf8} encoding of nbt, without encoding it.
+     *
+     * @param value the string
+     * @return the encoded length in bytes, excluding the length prefix
+     */
+    public static int encodedLength(String value) {
+        return ModifiedUtf8.encodedLength(value);
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        if (!growable) throw new BufferOverflowException();
+
+        var required = (long) buffer.position() + bytes;
+        if (required > Integer.MAX_VALUE) throw new NBTSerializationException("Data is too big");
+        var capacity = (int) Math.min(Math.max(required, buffer.capacity() * 2L), Integer.MAX_VALUE);
+        buffer = ByteBuffer.allocate(capacity).put(buffer.flip());
+    }
+
+    /**
+     * Writes the root compound's header, its tags follow.
+     *
+     * @param mode the mode, in {@link Mode#NETWORK} the name is omitted
+     * @param name the root's name
+     */
+    public void writeRoot(Mode mode, String name) {
+        switch (mode) {
+            case NETWORK -> writeType(Type.COMPOUND);
+            case FILE -> writeHeader(Type.COMPOUND, name);
+        }
+    }
+
+    /**
+     * Writes the header of a named tag inside a compound, its payload must follow.
+     *
+     * @param type the tag's type
+     * @param name the tag's name
+     */
+    public void writeHeader(Type type, String name) {
+        writeType(type);
+        writeString(name);
+    }
+
+    /**
+     * Ends the current compound.
+     */
+    public void writeEnd() {
+        writeType(Type.END);
+    }
+
+    /**
+     * Writes the header of a list, its elements' payloads must follow.
+     *
+     * @param elementType the type of the elements
+     * @param size        the amount of elements
+     */
+    public void writeListHeader(Type elementType, int size) {
+        writeType(size == 0 ? Type.END : elementType);
+        writeInt(size);
+    }
+
+    public void writeType(Type type) {
+        ensure(1);
+        buffer.put((byte) type.id());
+    }
+
+    public void writeByte(byte value) {
+        ensure(Byte.BYTES);
+        buffer.put(value);
+    }
+
+    public void writeShort(short value) {
+        ensure(Short.BYTES);
+        buffer.putShort(value);
+    }
+
+    public void writeInt(int value) {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    public void writeLong(long value) {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    public void writeFloat(float value) {
+        ensure(Float.BYTES);
+        buffer.putFloat(value);
+    }
+
+    public void writeDouble(double value) {
+        ensure(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Writes a length prefixed string, encoding it directly into the buffer.
+     *
+     * @param value the string
+     */
+    public void writeString(String value) {
+        var length = encodedLength(value);
+        if (length > MAX_STRING_LENGTH) {
+            throw new NBTSerializationException(FMT."String length exceed maximum of \{MAX_STRING_LENGTH}");
+        }
+        ensure(Short.BYTES + length);
+        buffer.putChar((char) length);
+        ModifiedUtf8.encode(value, length, buffer);
+    }
+
+    /**
+     * Writes already encoded nbt data as is, e.g. a cached payload.
+     *
+     * @param bytes the encoded data
+     */
+    public void writeRaw(byte[] bytes) {
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes already encoded nbt data as is, e.g. a cached payload.
+     *
+     * @param bytes the encoded data, its remaining bytes are written without moving its position
+     */
+    public void writeRaw(ByteBuffer bytes) {
+        ensure(bytes.remaining());
+        buffer.put(bytes.duplicate());
+    }
+
+    /**
+     * @return a copy of all bytes written so far
+     */
+    public byte[] toByteArray() {
+        var bytes = new byte[buffer.position()];
+        buffer.get(0, bytes);
+        return bytes;
+    }
+
+    public void writeByteArray(byte[] value) {
+        ensure(Integer.BYTES + value.length);
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    public void writeIntArray(int[] value) {
+        if ((long) value.length * Integer.BYTES > Integer.MAX_VALUE - Integer.BYTES) throw errorArrayToBig();
+        ensure(Integer.BYTES + value.length * Integer.BYTES);
+        buffer.putInt(value.length);
+        // bulk copy through a big endian view
+        buffer.asIntBuffer().put(value);
+        buffer.position(buffer.position() + value.length * Integer.BYTES);
+    }
+
+    public void writeLongArray(long[] value) {
+        if ((long) value.length * Long.BYTES > Integer.MAX_VALUE - Integer.BYTES) throw errorArrayToBig();
+        ensure(Integer.BYTES + value.length * Long.BYTES);
+        buffer.putInt(value.length);
+        buffer.asLongBuffer().put(value);
+        buffer.position(buffer.position() + value.length * Long.BYTES);
+    }
+
+    private NBTSerializationException errorArrayToBig() {
+        return new NBTSerializationException("array is to big");
+    }
+}
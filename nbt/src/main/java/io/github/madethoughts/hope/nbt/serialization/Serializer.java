@@ -3,39 +3,24 @@ package io.github.madethoughts.hope.nbt.serialization;
 import io.github.madethoughts.hope.nbt.Compression;
 import io.github.madethoughts.hope.nbt.Mode;
 import io.github.madethoughts.hope.nbt.Type;
+import io.github.madethoughts.hope.nbt.compression.Lz4Block;
 import io.github.madethoughts.hope.nbt.tree.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
-import static java.util.FormatProcessor.FMT;
-
 public final class Serializer {
-    private final RootCompound tree;
-    private final Mode mode;
-
-    private final ByteBuffer numberBuffer = ByteBuffer.allocate(8).order(ByteOrder.BIG_ENDIAN);
-    private final ByteArrayOutputStream finalOutputStream = new ByteArrayOutputStream();
-    private final OutputStream out;
-
-    private Serializer(Mode mode, Compression compression, RootCompound tree) {
-        try {
-            this.tree = tree;
-            this.mode = mode;
-            this.out = switch (compression) {
-                case NONE -> finalOutputStream;
-                case GZIP -> new GZIPOutputStream(finalOutputStream);
-            };
-        } catch (IOException e) {
-            throw wrappedError(e);
-        }
+    private final NbtWriter writer;
+
+    private Serializer(NbtWriter writer) {
+        this.writer = writer;
     }
 
     /**
@@ -46,136 +31,145 @@ public final class Serializer {
      * @return the serialized bytes
      */
     public static byte[] serialize(Mode mode, Compression compression, RootCompound tree) {
-        return new Serializer(mode, compression, tree).serializeTree();
-    }
-
-    private NBTSerializationException errorArrayToBig() {
-        return new NBTSerializationException("array is to big");
+        var bytes = new byte[size(mode, tree)];
+        serialize(mode, tree, ByteBuffer.wrap(bytes));
+        if (compression == Compression.NONE) return bytes;
+
+        try (var outputStream = new ByteArrayOutputStream(bytes.length / 2)) {
+            switch (compression) {
+                case NONE -> {}
+                case GZIP -> compress(new GZIPOutputStream(outputStream), bytes);
+                case ZLIB -> compress(new DeflaterOutputStream(outputStream), bytes);
+                case LZ4 -> Lz4Block.compress(bytes, 0, bytes.length, outputStream);
+            }
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw wrappedError(e);
+        }
     }
 
-    private NBTSerializationException wrappedError(Exception e) {
-        return new NBTSerializationException("Unexpected error during tree processing.", e);
+    /**
+     * Serializes a NBT Tree uncompressed into the given buffer, starting at its position.
+     * The buffer must have at least {@link Serializer#size(Mode, RootCompound)} bytes remaining.
+     * @param mode the mode to be used
+     * @param tree the tree to be serialized
+     * @param target the buffer to write into, its position is moved behind the written data
+     */
+    public static void serialize(Mode mode, RootCompound tree, ByteBuffer target) {
+        var writer = NbtWriter.of(target);
+        new Serializer(writer).serializeTree(mode, tree);
+        target.position(writer.buffer().position());
     }
 
-    private byte[] serializeTree() {
-        try (out) {
-            switch (mode) {
-                case NETWORK -> out.write(Type.COMPOUND.id());
-                case FILE -> {
-                    out.write(Type.COMPOUND.id());
-                    unwrappedString(tree.name());
-                }
-            }
-
-            write(tree.compound());
-
-            if (out instanceof GZIPOutputStream gzipOutputStream) {
-                gzipOutputStream.finish();
-            }
-            return finalOutputStream.toByteArray();
-        } catch (IOException ioException) {
-            throw wrappedError(ioException);
-        }
+    /**
+     * Serializes a NBT Tree uncompressed into the given segment, starting at its beginning.
+     * The segment must have at least {@link Serializer#size(Mode, RootCompound)} bytes.
+     * @param mode the mode to be used
+     * @param tree the tree to be serialized
+     * @param target the segment to write into
+     * @return the amount of written bytes
+     */
+    public static int serialize(Mode mode, RootCompound tree, MemorySegment target) {
+        var buffer = target.asByteBuffer();
+        serialize(mode, tree, buffer);
+        return buffer.position();
     }
 
-    private void unwrappedString(String value) throws IOException {
-        var bytes = value.getBytes(StandardCharsets.UTF_8);
-        if (bytes.length > Short.MAX_VALUE)
-            throw new NBTSerializationException(FMT."String length exceed maximum of \{Short.MAX_VALUE}");
-        writeChar((char) bytes.length);
-        out.write(bytes);
+    /**
+     * Calculates the size of the uncompressed tree, without serializing it.
+     * @param mode the mode to be used
+     * @param tree the tree
+     * @return the size in bytes
+     */
+    public static int size(Mode mode, RootCompound tree) {
+        long size = 1 + switch (mode) {
+            case NETWORK -> 0;
+            case FILE -> stringSize(tree.name());
+        };
+        size += size(tree.compound());
+        if (size > Integer.MAX_VALUE) throw new NBTSerializationException("Tree is too big");
+        return (int) size;
     }
 
-    private void writeChar(char value) throws IOException {
-        numberBuffer.clear();
-        numberBuffer.putChar(value);
-        out.write(numberBuffer.array(), 0, 2);
+    private static long stringSize(String value) {
+        return Short.BYTES + NbtWriter.encodedLength(value);
     }
 
-    private void writeShort(short value) throws IOException {
-        numberBuffer.clear();
-        numberBuffer.putShort(value);
-        out.write(numberBuffer.array(), 0, 2);
+    private static long size(Tag tag) {
+        return switch (tag) {
+            case TagCompound(Map<String, Tag> tags) -> {
+                // end tag
+                long size = 1;
+                for (var entry : tags.entrySet()) {
+                    size += 1 + stringSize(entry.getKey()) + size(entry.getValue());
+                }
+                yield size;
+            }
+            case TagByte _ -> Byte.BYTES;
+            case TagShort _ -> Short.BYTES;
+            case TagInt _, TagFloat _ -> Integer.BYTES;
+            case TagLong _, TagDouble _ -> Long.BYTES;
+            case TagByteArray(byte[] value) -> Integer.BYTES + (long) value.length;
+            case TagString(String value) -> stringSize(value);
+            case TagList(List<Tag> tags) -> {
+                long size = 1 + Integer.BYTES;
+                for (var element : tags) size += size(element);
+                yield size;
+            }
+            case TagIntArray(int[] value) -> Integer.BYTES + (long) value.length * Integer.BYTES;
+            case TagLongArray(long[] value) -> Integer.BYTES + (long) value.length * Long.BYTES;
+        };
     }
 
-    private void writeLong(long value) throws IOException {
-        numberBuffer.clear();
-        numberBuffer.putLong(value);
-        out.write(numberBuffer.array(), 0, 8);
+    private static void compress(OutputStream out, byte[] bytes) throws IOException {
+        try (out) {
+            out.write(bytes);
+        }
     }
 
-    private void writeInt(int value) throws IOException {
-        numberBuffer.clear();
-        numberBuffer.putInt(value);
-        out.write(numberBuffer.array(), 0, 4);
+    private static NBTSerializationException wrappedError(Exception e) {
+        return new NBTSerializationException("Unexpected error during tree processing.", e);
     }
 
-    private void writeFloat(float value) throws IOException {
-        numberBuffer.clear();
-        numberBuffer.putFloat(value);
-        out.write(numberBuffer.array(), 0, 4);
+    /**
+     * Writes the payload of a tag, without the tag's header.
+     * @param writer the writer
+     * @param tag the tag
+     */
+    public static void writePayload(NbtWriter writer, Tag tag) {
+        new Serializer(writer).write(tag);
     }
 
-    private void writeDouble(double value) throws IOException {
-        numberBuffer.clear();
-        numberBuffer.putDouble(value);
-        out.write(numberBuffer.array(), 0, 8);
+    private void serializeTree(Mode mode, RootCompound tree) {
+        writer.writeRoot(mode, tree.name());
+        write(tree.compound());
     }
 
     private void write(Tag current) {
-        try {
-            switch (current) {
-                case TagCompound(Map<String, Tag> tags) -> {
-                    for (var entry : tags.entrySet()) {
-                        String name = entry.getKey();
-                        Tag wrappedTag = entry.getValue();
-
-                        out.write(Type.byTagClass(wrappedTag.getClass()).id());
-                        unwrappedString(name);
-                        write(wrappedTag);
-                    }
-
-                    out.write(Type.END.id());
-                }
-                case TagByte(byte value) -> out.write(value);
-                case TagShort(short value) -> writeShort(value);
-                case TagInt(int value) -> writeInt(value);
-                case TagLong(long value) -> writeLong(value);
-                case TagFloat(float value) -> writeFloat(value);
-                case TagDouble(double value) -> writeDouble(value);
-                case TagByteArray(byte[] value) -> {
-                    writeInt(value.length);
-                    out.write(value);
-                }
-                case TagString(String value) -> unwrappedString(value);
-                case TagList(List<Tag> tags) -> {
-                    byte id = (byte) (tags.isEmpty()
-                            ? Type.END.id()
-                            : Type.byTagClass(tags.getFirst().getClass()).id());
-
-                    out.write(id);
-                    writeInt(tags.size());
-                    tags.forEach(this::write);
-                }
-                case TagIntArray(int[] value) -> {
-                    if (((long) value.length * Integer.BYTES > Integer.MAX_VALUE)) throw errorArrayToBig();
-                    writeInt(value.length);
-
-                    ByteBuffer buffer = ByteBuffer.allocate(value.length * Integer.BYTES);
-                    buffer.asIntBuffer().put(value);
-                    out.write(buffer.array());
-                }
-                case TagLongArray(long[] value) -> {
-                    if (((long) value.length * Long.BYTES > Integer.MAX_VALUE)) throw errorArrayToBig();
-                    writeInt(value.length);
-
-                    ByteBuffer buffer = ByteBuffer.allocate(value.length * Long.BYTES);
-                    buffer.asLongBuffer().put(value);
-                    out.write(buffer.array());
-                }
+        switch (current) {
+            case TagCompound(Map<String, Tag> tags) -> {
+                // forEach doesn't allocate entries for compact maps
+                tags.forEach((name, wrappedTag) -> {
+                    writer.writeHeader(Type.of(wrappedTag), name);
+                    write(wrappedTag);
+                });
+
+                writer.writeEnd();
             }
-        } catch (IOException e) {
-            throw wrappedError(e);
+            case TagByte(byte value) -> writer.writeByte(value);
+            case TagShort(short value) -> writer.writeShort(value);
+            case TagInt(int value) -> writer.writeInt(value);
+            case TagLong(long value) -> writer.writeLong(value);
+            case TagFloat(float value) -> writer.writeFloat(value);
+            case TagDouble(double value) -> writer.writeDouble(value);
+            case TagByteArray(byte[] value) -> writer.writeByteArray(value);
+            case TagString(String value) -> writer.writeString(value);
+            case TagList(List<Tag> tags) -> {
+                writer.writeListHeader(tags.isEmpty() ? Type.END : Type.of(tags.getFirst()), tags.size());
+                tags.forEach(this::write);
+            }
+            case TagIntArray(int[] value) -> writer.writeIntArray(value);
+            case TagLongArray(long[] value) -> writer.writeLongArray(value);
         }
     }
 }
@@ -0,0 +1,241 @@
+package io.github.madethoughts.hope.nbt.tree;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A memory efficient map with string keys, meant for the many small compounds of chunk and item data.
+ * Up to 8 entries are stored in two plain arrays and searched linearly, bigger maps switch to open addressing with
+ * linear probing. Unlike {@link java.util.HashMap}, no entry objects are allocated per mapping.
+ * <p>
+ * Null keys and values aren't permitted. The iterators of the views don't support removal, use
+ * {@link CompactMap#remove(Object)} instead. This map isn't thread safe.
+ *
+ * @param <V> the type of the values
+ */
+public final class CompactMap<V> extends AbstractMap<String, V> {
+    private static final int LINEAR_MAX = 8;
+    private static final int MIN_TABLE_CAPACITY = 32;
+
+    // linear: the first size slots are used, hashed: null marks empty slots
+    private String[] keys;
+    private Object[] values;
+    private int size;
+
+    public CompactMap() {
+        this(2);
+    }
+
+    /**
+     * @param expectedSize the expected amount of entries
+     */
+    public CompactMap(int expectedSize) {
+        var capacity = expectedSize <= LINEAR_MAX
+                ? Math.max(expectedSize, 1)
+                : tableCapacity(expectedSize);
+        keys = new String[capacity];
+        values = new Object[capacity];
+    }
+
+    private static int tableCapacity(int size) {
+        // keeps the load factor at or below 0.5
+        return Math.max(MIN_TABLE_CAPACITY, Integer.highestOneBit(size * 2 - 1) << 1);
+    }
+
+    private static int hash(String key) {
+        var h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private boolean hashed() {
+        return keys.length > LINEAR_MAX;
+    }
+
+    /**
+     * @return the index of the key's slot or, if absent, -1 in linear mode and the bitwise complement of the free
+     * slot in hashed mode
+     */
+    private int indexOf(Object key) {
+        if (!hashed()) {
+            for (var i = 0; i < size; i++) {
+                // interned keys are mostly found by identity
+                if (keys[i] == key || keys[i].equals(key)) return i;
+            }
+            return -1;
+        }
+
+        var mask = keys.length - 1;
+        for (var i = hash((String) key) & mask; ; i = (i + 1) & mask) {
+            var current = keys[i];
+            if (current == null) return ~i;
+            if (current == key || current.equals(key)) return i;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!(key instanceof String)) return null;
+        var index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(String key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+
+        var index = indexOf(key);
+        if (index >= 0) {
+            var previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        if (!hashed()) {
+            if (size < keys.length) {
+                keys[size] = key;
+                values[size] = value;
+                size++;
+                return null;
+            }
+            if (size < LINEAR_MAX) {
+                keys = Arrays.copyOf(keys, Math.min(keys.length * 2, LINEAR_MAX));
+                values = Arrays.copyOf(values, keys.length);
+                keys[size] = key;
+                values[size] = value;
+                size++;
+                return null;
+            }
+            rehash(tableCapacity(size + 1));
+        } else if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+
+        insertHashed(key, value);
+        size++;
+        return null;
+    }
+
+    private void insertHashed(String key, Object value) {
+        var mask = keys.length - 1;
+        var i = hash(key) & mask;
+        while (keys[i] != null) i = (i + 1) & mask;
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    private void rehash(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        var wasHashed = hashed();
+        keys = new String[capacity];
+        values = new Object[capacity];
+        for (var i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null && (wasHashed || i < size)) insertHashed(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (!(key instanceof String)) return null;
+        var index = indexOf(key);
+        if (index < 0) return null;
+        var previous = (V) values[index];
+        size--;
+
+        if (!hashed()) {
+            System.arraycopy(keys, index + 1, keys, index, size - index);
+            System.arraycopy(values, index + 1, values, index, size - index);
+            keys[size] = null;
+            values[size] = null;
+            return previous;
+        }
+
+        // backward shift deletion, so no tombstones are needed
+        var mask = keys.length - 1;
+        var free = index;
+        for (var i = (index + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            var home = hash(keys[i]) & mask;
+            // move the entry if its home slot isn't cyclically within (free, i]
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                keys[free] = keys[i];
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        keys[free] = null;
+        values[free] = null;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super String, ? super V> action) {
+        for (var i = 0; i < keys.length; i++) {
+            if (keys[i] != null) action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < keys.length && keys[from] == null) from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<String, V> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        var entry = Map.entry(keys[next], (V) values[next]);
+                        next = advance(next + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.madethoughts.hope.nbt.tree;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A weak interning table for hash consing nbt trees, so identical subtrees like the enchantments of thousands of
+ * items are kept only once and memory scales with the amount of distinct subtrees.
+ * <p>
+ * Trees are interned bottom up: the children of a tag passed to {@link TagInterner#intern(Tag)} have to be
+ * canonical already. Canonical children are compared by identity, so the hash and equality of a compound or list
+ * only depend on its direct children and are computed once when it's interned. The hash is cached in the table.
+ * <p>
+ * Canonical tags are shared and must not be modified. Interned compounds and lists are unmodifiable, the arrays of
+ * array tags can't be protected though. Tags are only held weakly and vanish once no tree references them anymore.
+ * The table is thread safe.
+ */
+public final class TagInterner {
+    /**
+     * A table shared by all users that don't need a separate one.
+     */
+    public static final TagInterner GLOBAL = new TagInterner();
+
+    // the table is striped by hash, so parallel deserialization rarely contends
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public TagInterner() {
+        for (var i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    /**
+     * Returns the canonical instance equal to the given tag, registering the tag itself if there is none.
+     * Compounds and lists are wrapped into unmodifiable views before they are registered, so their collections
+     * must not be modified by the caller afterward.
+     *
+     * @param tag the tag, whose children have to be canonical
+     * @param <T> the type of the tag
+     * @return the canonical tag
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Tag> T intern(T tag) {
+        var hash = shallowHash(tag);
+        hash ^= hash >>> 16;
+        // the low bits select the bucket inside the stripe, so the stripe is selected by the scrambled high bits
+        var stripe = (hash * 0x9E3779B9) >>> (Integer.SIZE - STRIPE_BITS);
+        return (T) stripes[stripe].intern(tag, hash);
+    }
+
+    /**
+     * Interns a whole tree, which doesn't need to consist of canonical tags.
+     *
+     * @param tag the root of the tree
+     * @param <T> the type of the tag
+     * @return the canonical tree
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Tag> T canonicalize(T tag) {
+        return (T) intern(switch (tag) {
+            case TagCompound compound -> {
+                var values = new CompactMap<Tag>(compound.values().size());
+                compound.values().forEach((name, value) -> values.put(name, canonicalize(value)));
+                yield new TagCompound(values);
+            }
+            case TagList list -> {
+                var values = new ArrayList<Tag>(list.values().size());
+                for (var value : list.values()) values.add(canonicalize(value));
+                yield new TagList(values);
+            }
+            default -> tag;
+        });
+    }
+
+    /**
+     * @return the amount of canonical tags, including ones that were collected but not expunged yet
+     */
+    public int size() {
+        var size = 0;
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    private static int shallowHash(Tag tag) {
+        return switch (tag) {
+            case TagCompound compound -> {
+                var hash = 0;
+                // order independent, like Map#hashCode
+                for (var entry : compound.values().entrySet()) {
+                    hash += entry.getKey().hashCode() ^ System.identityHashCode(entry.getValue());
+                }
+                yield hash;
+            }
+            case TagList list -> {
+                var hash = 1;
+                for (var value : list.values()) hash = 31 * hash + System.identityHashCode(value);
+                yield hash;
+            }
+            case TagByteArray array -> Arrays.hashCode(array.value());
+            case TagIntArray array -> Arrays.hashCode(array.value());
+            case TagLongArray array -> Arrays.hashCode(array.value());
+            default -> tag.hashCode();
+        };
+    }
+
+    private static boolean shallowEquals(Tag a, Tag b) {
+        return switch (a) {
+            case TagCompound compound when b instanceof TagCompound other -> {
+                var values = compound.values();
+                var otherValues = other.values();
+                if (values.size() != otherValues.size()) yield false;
+                for (var entry : values.entrySet()) {
+                    if (otherValues.get(entry.getKey()) != entry.getValue()) yield false;
+                }
+                yield true;
+            }
+            case TagList list when b instanceof TagList other -> {
+                var values = list.values();
+                var otherValues = other.values();
+                if (values.size() != otherValues.size()) yield false;
+                for (var i = 0; i < values.size(); i++) {
+                    if (values.get(i) != otherValues.get(i)) yield false;
+                }
+                yield true;
+            }
+            case TagByteArray array when b instanceof TagByteArray other -> Arrays.equals(array.value(), other.value());
+            case TagIntArray array when b instanceof TagIntArray other -> Arrays.equals(array.value(), other.value());
+            case TagLongArray array when b instanceof TagLongArray other -> Arrays.equals(array.value(), other.value());
+            default -> a.equals(b);
+        };
+    }
+
+    private static Tag unmodifiable(Tag tag) {
+        return switch (tag) {
+            case TagCompound compound -> new TagCompound(unmodifiableMap(compound.values()));
+            case TagList list -> new TagList(Collections.unmodifiableList(list.values()));
+            default -> tag;
+        };
+    }
+
+    private static Map<String, Tag> unmodifiableMap(Map<String, Tag> values) {
+        if (values instanceof CompactMap<Tag>) return Collections.unmodifiableMap(values);
+        var copy = new CompactMap<Tag>(values.size());
+        copy.putAll(values);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static final class Node extends WeakReference<Tag> {
+        private final int hash;
+        private Node next;
+
+        private Node(Tag tag, int hash, Node next, ReferenceQueue<Tag> queue) {
+            super(tag, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    private static final class Stripe {
+        private final ReferenceQueue<Tag> queue = new ReferenceQueue<>();
+        private Node[] table = new Node[INITIAL_CAPACITY];
+        private int size;
+
+        private synchronized Tag intern(Tag tag, int hash) {
+            expunge();
+            var index = hash & (table.length - 1);
+            for (var node = table[index]; node != null; node = node.next) {
+                if (node.hash != hash) continue;
+                var candidate = node.get();
+                if (candidate != null && shallowEquals(candidate, tag)) return candidate;
+            }
+
+            var canonical = unmodifiable(tag);
+            table[index] = new Node(canonical, hash, table[index], queue);
+            if (++size > table.length * 3 / 4) resize();
+            return canonical;
+        }
+
+        private void expunge() {
+            Reference<? extends Tag> reference;
+            while ((reference = queue.poll()) != null) {
+                var stale = (Node) reference;
+                var index = stale.hash & (table.length - 1);
+                Node previous = null;
+                for (var node = table[index]; node != null; previous = node, node = node.next) {
+                    if (node != stale) continue;
+                    if (previous == null) {
+                        table[index] = node.next;
+                    } else {
+                        previous.next = node.next;
+                    }
+                    size--;
+                    break;
+                }
+            }
+        }
+
+        private void resize() {
+            var resized = new Node[table.length * 2];
+            for (var head : table) {
+                for (var node = head; node != null; ) {
+                    var next = node.next;
+                    var index = node.hash & (resized.length - 1);
+                    node.next = resized[index];
+                    resized[index] = node;
+                    node = next;
+                }
+            }
+            table = resized;
+        }
+    }
+}
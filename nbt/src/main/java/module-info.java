@@ -1,6 +1,9 @@
 module hope.nbt.main {
     exports io.github.madethoughts.hope.nbt;
+    exports io.github.madethoughts.hope.nbt.codec;
     exports io.github.madethoughts.hope.nbt.tree;
     exports io.github.madethoughts.hope.nbt.deserialization;
+    exports io.github.madethoughts.hope.nbt.lazy;
+    exports io.github.madethoughts.hope.nbt.persistent;
     exports io.github.madethoughts.hope.nbt.serialization;
 }
\ No newline at end of file
@@ -20,6 +20,8 @@ package io.github.madethoughts.hope.configuration.processor;
 
 import org.tomlj.TomlTable;
 
+import java.util.Set;
+
 public interface AbstractConfig {
     int version();
 
@@ -28,6 +30,22 @@ public interface AbstractConfig {
     @SuppressWarnings("override")
     void load(TomlTable tomlTable) throws Exception;
 
+    /**
+     * Resolves and validates the given config and atomically swaps it in, notifying all listeners about the changed
+     * keys. If the config is invalid, the current values stay untouched.
+     *
+     * @param tomlTable the new config
+     * @return the keys of all changed values
+     * @throws ConfigValidationException if the new config contains invalid values
+     * @throws Exception                 any exception thrown while loading
+     */
+    Set<String> reload(TomlTable tomlTable) throws Exception;
+
+    /**
+     * @param listener the listener notified about the changed keys after each reload
+     */
+    void addListener(ConfigListener listener);
+
     default CheckVersionResult checkVersion() {
         try {
             var version = version();
@@ -181,7 +181,7 @@ public class ConfigProcessor extends AbstractProcessor {
         return generatedClasses.computeIfAbsent(root, key -> {
             currentPath = path;
             try {
-                currentWriter = new ConfigWriter(tomlTable, root, elements);
+                currentWriter = new ConfigWriter(tomlTable, root, elements, path == null);
 
                 // aggregate elements of interface and extended ones
                 var aggregatedElements = new ArrayList<Element>(root.getEnclosedElements());
@@ -220,8 +220,12 @@ public class ConfigProcessor extends AbstractProcessor {
                             }
                         }
 
-                        // skip load method, will be implemented later
-                        if ("load".equals(name)) continue;
+                        // skip load and reload methods, will be implemented later
+                        switch (name) {
+                            case "load", "reload", "add_listener" -> {
+                                continue;
+                            }
+                        }
 
                         // Map java type to corresponding toml kind
                         var tomlType = (TomlKind) switch (returnType.getKind()) {
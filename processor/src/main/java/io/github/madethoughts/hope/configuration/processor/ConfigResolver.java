@@ -0,0 +1,114 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.configuration.processor;
+
+import org.tomlj.TomlTable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves and type validates the values of a toml config, used by the generated config implementations.
+ * Instead of failing at the first invalid value, all errors are collected and reported together by
+ * {@link ConfigResolver#validate()}. Missing values resolve to their default.
+ */
+public final class ConfigResolver {
+
+    private final TomlTable toml;
+    private final List<String> errors = new ArrayList<>();
+
+    public ConfigResolver(TomlTable toml) {
+        this.toml = toml;
+    }
+
+    /**
+     * Resolves an integer value.
+     *
+     * @param key          the dotted key
+     * @param defaultValue the value used if the key is missing or invalid
+     * @param min          the minimum allowed value, inclusive
+     * @param max          the maximum allowed value, inclusive
+     * @return the resolved value
+     */
+    public long getInteger(String key, long defaultValue, long min, long max) {
+        var value = get(key, TomlKind.INTEGER);
+        if (value == null) return defaultValue;
+
+        var integer = (long) value;
+        if (integer < min || integer > max) {
+            error(key, "must be between %s and %s, got %s".formatted(min, max, integer));
+            return defaultValue;
+        }
+        return integer;
+    }
+
+    /**
+     * Resolves a floating point value.
+     *
+     * @param key          the dotted key
+     * @param defaultValue the value used if the key is missing or invalid
+     * @return the resolved value
+     */
+    public double getFloat(String key, double defaultValue) {
+        var value = get(key, TomlKind.FLOAT);
+        return value != null ? (double) value : defaultValue;
+    }
+
+    /**
+     * Resolves a string value.
+     *
+     * @param key          the dotted key
+     * @param defaultValue the value used if the key is missing or invalid
+     * @return the resolved value
+     */
+    public String getString(String key, String defaultValue) {
+        var value = get(key, TomlKind.STRING);
+        return value != null ? (String) value : defaultValue;
+    }
+
+    /**
+     * Records an error for the given key.
+     *
+     * @param key     the dotted key
+     * @param message the error message
+     */
+    public void error(String key, String message) {
+        errors.add("%s: %s".formatted(key, message));
+    }
+
+    /**
+     * @throws ConfigValidationException if any value was invalid, containing all errors
+     */
+    public void validate() throws ConfigValidationException {
+        if (!errors.isEmpty()) throw new ConfigValidationException(errors);
+    }
+
+    private Object get(String key, TomlKind expected) {
+        var value = toml.get(key);
+        if (value == null) return null;
+        if (!expected.rightType(value)) {
+            var actual = TomlKind.forClass(value.getClass());
+            error(key, "expected %s, got %s".formatted(expected, actual != null
+                                                                 ? actual
+                                                                 : value.getClass().getSimpleName()));
+            return null;
+        }
+        return value;
+    }
+}
@@ -16,19 +16,26 @@
  *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
 
-package io.github.madethoughts.hope.json.serializers;
+package io.github.madethoughts.hope.configuration.processor;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
-import io.github.madethoughts.hope.Server;
-import net.kyori.adventure.text.Component;
+import java.util.List;
 
-import java.lang.reflect.Type;
+/**
+ * Thrown if a config contains invalid values.
+ */
+public class ConfigValidationException extends Exception {
+
+    private final List<String> errors;
+
+    public ConfigValidationException(List<String> errors) {
+        super("Invalid config values: %s".formatted(String.join(", ", errors)));
+        this.errors = List.copyOf(errors);
+    }
 
-public class ComponentGsonTypeAdapter implements JsonSerializer<Component> {
-    @Override
-    public JsonElement serialize(Component src, Type typeOfSrc, JsonSerializationContext context) {
-        return Server.GSON_COMPONENT_SERIALIZER.serializeToTree(src);
+    /**
+     * @return the errors of all invalid values
+     */
+    public List<String> errors() {
+        return errors;
     }
 }
@@ -23,9 +23,9 @@ import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
-import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.tomlj.TomlTable;
 
@@ -34,43 +34,78 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import java.io.IOException;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Generates config implementations. Each implementation has a no args constructor and a load methods, that takes the
- * main toml config and the default (fallback) config. There are no validation checks in this implementation.
+ * Generates config implementations. All values are resolved and type validated once while loading, errors of all
+ * values are reported together (see {@link ConfigResolver}). The resolved values are stored in final fields of an
+ * immutable inner Values class, so the getters are plain field reads.
+ * The root implementation has a load method taking the toml config, inner configs (toml tables) are loaded by their
+ * parent using the same {@link ConfigResolver}.
+ * Additionally, the root implementation can be reloaded: a new Values instance is resolved and validated and then
+ * swapped in atomically, afterward all registered {@link ConfigListener}s are notified about the changed keys.
  */
 public final class ConfigWriter {
 
+    private static final String VALUES_CLASS = "Values";
+    private static final String RESOLVER = "resolver";
+    private static final String OLD = "old";
+    private static final String CHANGED = "changed";
+    private static final TypeName CHANGED_TYPE = ParameterizedTypeName.get(Set.class, String.class);
+
     private final TomlTable defaultValues;
 
     private final boolean superClass;
+    private final boolean root;
 
-    private final FieldSpec tomlField;
     private final TypeSpec.Builder typeSpecBuilder;
-
-    private final Map<FieldSpec, JavaFile> innerConfigFields = new HashMap<>();
+    private final TypeSpec.Builder valuesBuilder;
+    private final MethodSpec.Builder valuesConstructor;
+    private final MethodSpec.Builder valuesDiff;
+    private final ClassName implementationName;
+    private final FieldSpec valuesField;
 
     private final PackageElement interfacePackage;
 
     private final Map<String, FieldSpec> constructorInitialized = new HashMap<>();
-    private final Map<String, FieldSpec> loadInitialized = new HashMap<>();
-    private final List<MethodSpec> loaders = new ArrayList<>();
 
-    public ConfigWriter(TomlTable defaultValues, TypeElement superType, Elements elements) {
+    public ConfigWriter(TomlTable defaultValues, TypeElement superType, Elements elements, boolean root) {
         this.defaultValues = defaultValues;
+        this.root = root;
         this.interfacePackage = elements.getPackageOf(superType);
-        this.tomlField = FieldSpec.builder(TomlTable.class, "toml", Modifier.PRIVATE)
-                                  .build();
-        this.typeSpecBuilder = TypeSpec.classBuilder(superType.getSimpleName() + "$Implementation")
+
+        var className = superType.getSimpleName() + "$Implementation";
+        this.implementationName = ClassName.get(interfacePackage.getQualifiedName().toString(), className);
+        var valuesClassName = implementationName.nestedClass(VALUES_CLASS);
+        // the root's values are swapped on reload, inner configs are published through the root's values
+        var valuesModifiers = root
+                              ? new Modifier[]{Modifier.PRIVATE, Modifier.VOLATILE}
+                              : new Modifier[]{Modifier.PRIVATE};
+        this.valuesField = FieldSpec.builder(valuesClassName, "values", valuesModifiers)
+                                    .build();
+        this.valuesBuilder = TypeSpec.classBuilder(VALUES_CLASS)
+                                     .addModifiers(Modifier.PRIVATE, Modifier.FINAL);
+        this.valuesConstructor = MethodSpec.constructorBuilder()
+                                           .addModifiers(Modifier.PRIVATE)
+                                           .addParameter(ConfigResolver.class, RESOLVER);
+        this.valuesDiff = MethodSpec.methodBuilder("diff")
+                                    .addModifiers(Modifier.PRIVATE)
+                                    .addParameter(valuesClassName, OLD)
+                                    .addParameter(CHANGED_TYPE, CHANGED);
+        this.typeSpecBuilder = TypeSpec.classBuilder(className)
                                        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-                                       .addField(tomlField);
+                                       .addField(valuesField);
         this.superClass = !superType.getKind().isInterface();
         if (superClass) {
             typeSpecBuilder.superclass(superType.asType());
@@ -85,21 +120,41 @@ public final class ConfigWriter {
      * @param descriptor the PropertyDescriptor of this method/value
      */
     public void addProperty(PropertyDescriptor descriptor) {
-        var type = descriptor.kind();
+        var returnType = descriptor.method().getReturnType();
+        var name = descriptor.name();
+        var kind = descriptor.kind();
+        var field = valueField(descriptor.method());
+        var defaultValue = getDefaultValue(name, kind);
 
-        switch (type) {
-            case INTEGER -> addGetter(descriptor, "getLong", "$L");
-            case FLOAT -> addGetter(descriptor, "getDouble", "$L");
-            case STRING -> addGetter(descriptor, "getString", "$S");
+        switch (kind) {
+            case INTEGER -> {
+                var boxed = ClassName.get(integerBoxType(returnType));
+                valuesConstructor.addStatement("this.$N = ($T) $N.getInteger($S, $LL, $T.MIN_VALUE, $T.MAX_VALUE)",
+                        field, returnType, RESOLVER, name, defaultValue, boxed, boxed
+                );
+            }
+            case FLOAT -> valuesConstructor.addStatement("this.$N = ($T) $N.getFloat($S, $L)",
+                    field, returnType, RESOLVER, name, defaultValue
+            );
+            case STRING -> valuesConstructor.addStatement("this.$N = $N.getString($S, $S)",
+                    field, RESOLVER, name, defaultValue
+            );
         }
+        addDiff(name, field, returnType);
+        addGetter(descriptor.method(), field);
     }
 
     /**
      * Adds an implementation for a version getter
      */
     public void addVersionGetter(ExecutableElement element) {
+        var field = valueField(element);
+        valuesConstructor.addStatement("this.$N = (int) $N.getInteger($S, -1, $T.MIN_VALUE, $T.MAX_VALUE)",
+                field, RESOLVER, "version", Integer.class, Integer.class
+        );
+
         var method = MethodSpec.overriding(element)
-                               .addStatement("var version = (int) $N.getLong($S, () -> -1)", tomlField, "version")
+                               .addStatement("var version = $N.$N", valuesField, field)
                                .addStatement("if (version < 1) throw new IllegalStateException($S)",
                                        "The config's version field is missing or has an invalid value."
                                )
@@ -119,45 +174,62 @@ public final class ConfigWriter {
     }
 
     /**
-     * Adds a delegate to an inner config (toml table).
+     * Adds a delegate to an inner config (toml table), which is loaded together with this config.
      *
      * @param element the interface method
      * @param file    the inner configs generated JavaFile
      */
     public void addDelegate(ExecutableElement element, JavaFile file) {
-        var typeName = TypeName.get(element.getReturnType());
-        var field = FieldSpec.builder(typeName, element.getSimpleName().toString(), Modifier.PRIVATE)
+        var implementation = ClassName.get(file.packageName, file.typeSpec.name);
+        var field = FieldSpec.builder(implementation, element.getSimpleName().toString(),
+                                     Modifier.PRIVATE, Modifier.FINAL)
                              .build();
-        innerConfigFields.put(field, file);
+        valuesBuilder.addField(field);
+        valuesConstructor.addStatement("var $N = new $T()", field, implementation)
+                         .addStatement("$N.load($N)", field, RESOLVER)
+                         .addStatement("this.$N = $N", field, field);
+        valuesDiff.addStatement("this.$N.diff($N.$N, $N)", field, OLD, field, CHANGED);
 
-        var method = MethodSpec.overriding(element)
-                               .addStatement("return $N", field)
-                               .build();
-        typeSpecBuilder.addMethod(method);
+        addGetter(element, field);
     }
 
     public void addMiniMessage(PropertyDescriptor descriptor) {
-        var motdField = loadInitField("motd", Component.class);
-        var loader = MethodSpec.methodBuilder("motdInit")
-                               .addStatement("this.$N = $N.deserialize($N.getString($S, () -> $S))", motdField,
-                                       constructorInitField("mm", MiniMessage.class),
-                                       tomlField,
-                                       descriptor.name(), getDefaultValue(descriptor.name(), TomlKind.STRING)
-                               )
-                               .build();
-        var getter = MethodSpec.overriding(descriptor.method())
-                               .addStatement("return $N", motdField)
-                               .build();
-        typeSpecBuilder.addMethod(getter);
-        loaders.add(loader);
+        var field = valueField(descriptor.method());
+        valuesConstructor.addStatement("this.$N = $N.deserialize($N.getString($S, $S))", field,
+                constructorInitField("mm", MiniMessage.class),
+                RESOLVER, descriptor.name(), getDefaultValue(descriptor.name(), TomlKind.STRING)
+        );
+        addDiff(descriptor.name(), field, descriptor.method().getReturnType());
+        addGetter(descriptor.method(), field);
     }
 
-    private FieldSpec loadInitField(String name, Type type) {
-        return loadInitialized.computeIfAbsent(name, key -> {
-            var field = FieldSpec.builder(type, key, Modifier.PRIVATE).build();
-            typeSpecBuilder.addField(field);
-            return field;
-        });
+    private FieldSpec valueField(ExecutableElement method) {
+        var field = FieldSpec.builder(TypeName.get(method.getReturnType()), method.getSimpleName().toString(),
+                                     Modifier.PRIVATE, Modifier.FINAL)
+                             .build();
+        valuesBuilder.addField(field);
+        return field;
+    }
+
+    /**
+     * Adds a comparison of this value with the previous one, used to determine the changed keys on reload.
+     *
+     * @param name  the full value name (key)
+     * @param field the field of the resolved value
+     * @param type  the value's java type
+     */
+    private void addDiff(String name, FieldSpec field, TypeMirror type) {
+        switch (type.getKind()) {
+            case FLOAT, DOUBLE -> valuesDiff.addStatement("if ($T.compare(this.$N, $N.$N) != 0) $N.add($S)",
+                    Double.class, field, OLD, field, CHANGED, name
+            );
+            case BYTE, SHORT, INT, LONG -> valuesDiff.addStatement("if (this.$N != $N.$N) $N.add($S)",
+                    field, OLD, field, CHANGED, name
+            );
+            default -> valuesDiff.addStatement("if (!$T.equals(this.$N, $N.$N)) $N.add($S)",
+                    Objects.class, field, OLD, field, CHANGED, name
+            );
+        }
     }
 
     private FieldSpec constructorInitField(String name, Type type) {
@@ -169,24 +241,25 @@ public final class ConfigWriter {
     }
 
     /**
-     * Adds a simple getter implementation for this specific method (PropertyDescriptor)
+     * Adds a getter implementation for this specific method, reading the resolved value.
      *
-     * @param descriptor   the descriptor
-     * @param getterMethod the name of the corresponding getter method in {@link TomlTable}
+     * @param method the interface method
+     * @param field  the field of the resolved value
      */
-    private void addGetter(PropertyDescriptor descriptor, String getterMethod, String defaultPlaceholder) {
-        var returnType = descriptor.method().getReturnType();
-        var name = descriptor.name();
-        var kind = descriptor.kind();
-
-        var method = MethodSpec.overriding(descriptor.method())
-                               .addStatement("return ($T) $N.$N($S, () -> %s)".formatted(defaultPlaceholder),
-                                       returnType,
-                                       tomlField, getterMethod,
-                                       name, getDefaultValue(name, kind)
-                               )
+    private void addGetter(ExecutableElement method, FieldSpec field) {
+        var getter = MethodSpec.overriding(method)
+                               .addStatement("return $N.$N", valuesField, field)
                                .build();
-        typeSpecBuilder.addMethod(method);
+        typeSpecBuilder.addMethod(getter);
+    }
+
+    private Class<?> integerBoxType(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BYTE -> Byte.class;
+            case SHORT -> Short.class;
+            case INT -> Integer.class;
+            default -> Long.class;
+        };
     }
 
     private Object getDefaultValue(String name, TomlKind expectedKind) {
@@ -201,6 +274,49 @@ public final class ConfigWriter {
         return defaultValue;
     }
 
+    /**
+     * Adds the listener registration and the reload method to the root implementation.
+     * The reload additionally rejects a changed config version, since reloading can't migrate the config.
+     */
+    private void addReload() {
+        var listenerType = ParameterizedTypeName.get(List.class, ConfigListener.class);
+        var listeners = FieldSpec.builder(listenerType, "listeners", Modifier.PRIVATE, Modifier.FINAL)
+                                 .initializer("new $T<>()", CopyOnWriteArrayList.class)
+                                 .build();
+        typeSpecBuilder.addField(listeners);
+
+        var addListener = MethodSpec.methodBuilder("addListener")
+                                    .addAnnotation(Override.class)
+                                    .addModifiers(Modifier.PUBLIC)
+                                    .addParameter(ConfigListener.class, "listener")
+                                    .addStatement("$N.add(listener)", listeners)
+                                    .build();
+
+        var reload = MethodSpec.methodBuilder("reload")
+                               .addAnnotation(Override.class)
+                               .addModifiers(Modifier.SYNCHRONIZED, Modifier.PUBLIC)
+                               .returns(CHANGED_TYPE)
+                               .addException(Exception.class)
+                               .addParameter(TomlTable.class, "toml")
+                               .addStatement("var $N = new $T(toml)", RESOLVER, ConfigResolver.class)
+                               .addStatement("var values = new $N($N)", VALUES_CLASS, RESOLVER)
+                               .addStatement("if (values.version != defaultVersion()) $N.error($S, $S)", RESOLVER,
+                                       "version", "can't be changed while reloading"
+                               )
+                               .addStatement("$N.validate()", RESOLVER);
+        if (superClass) reload.addStatement("super.load(toml)");
+        reload.addStatement("var $N = new $T<$T>()", CHANGED, LinkedHashSet.class, String.class)
+              .addStatement("values.diff(this.$N, $N)", valuesField, CHANGED)
+              .addStatement("this.$N = values", valuesField)
+              .addStatement("if ($N.isEmpty()) return $N", CHANGED, CHANGED)
+              .addStatement("var unmodifiable = $T.unmodifiableSet($N)", Collections.class, CHANGED)
+              .addStatement("for (var listener : $N) listener.configChanged(unmodifiable)", listeners)
+              .addStatement("return unmodifiable");
+
+        typeSpecBuilder.addMethod(addListener)
+                       .addMethod(reload.build());
+    }
+
     /**
      * Generates and writes the final JavaFile for this ConfigWriter.
      *
@@ -209,30 +325,34 @@ public final class ConfigWriter {
      * @throws IOException any I/O Exception
      */
     public JavaFile generate(Filer filer) throws IOException {
-        var loadMethod = MethodSpec.methodBuilder("load")
-                                   .addModifiers(Modifier.SYNCHRONIZED, Modifier.PUBLIC)
-                                   .addException(Exception.class)
-                                   .addParameter(TomlTable.class, "toml")
-                                   .addStatement("this.$N = toml", tomlField);
-        if (superClass) loadMethod.addStatement("super.load(toml)");
-
-        int i = 0;
-        for (var entry : innerConfigFields.entrySet()) {
-            var field = entry.getKey();
-            var file = entry.getValue();
-            typeSpecBuilder.addField(field);
-
-            var varName = "a%s".formatted(++i);
-            loadMethod
-                    .addStatement("var $N = new $T()", varName, ClassName.get(file.packageName, file.typeSpec.name))
-                    .addStatement("$N.load($N)", varName, tomlField)
-                    .addStatement("this.$N = $N", field, varName);
-        }
+        MethodSpec loadMethod;
+        if (root) {
+            addReload();
+            var builder = MethodSpec.methodBuilder("load")
+                                    .addAnnotation(Override.class)
+                                    .addModifiers(Modifier.SYNCHRONIZED, Modifier.PUBLIC)
+                                    .addException(Exception.class)
+                                    .addParameter(TomlTable.class, "toml");
+            if (superClass) builder.addStatement("super.load(toml)");
+            loadMethod = builder.addStatement("var $N = new $T(toml)", RESOLVER, ConfigResolver.class)
+                                .addStatement("var values = new $N($N)", VALUES_CLASS, RESOLVER)
+                                .addStatement("$N.validate()", RESOLVER)
+                                .addStatement("this.$N = values", valuesField)
+                                .build();
+        } else {
+            loadMethod = MethodSpec.methodBuilder("load")
+                                   .addModifiers(Modifier.PUBLIC)
+                                   .addParameter(ConfigResolver.class, RESOLVER)
+                                   .addStatement("this.$N = new $N($N)", valuesField, VALUES_CLASS, RESOLVER)
+                                   .build();
 
-        // call loader methods
-        for (var loader : loaders) {
-            typeSpecBuilder.addMethod(loader);
-            loadMethod.addStatement("$N()", loader);
+            var diff = MethodSpec.methodBuilder("diff")
+                                 .addModifiers(Modifier.PUBLIC)
+                                 .addParameter(implementationName, OLD)
+                                 .addParameter(CHANGED_TYPE, CHANGED)
+                                 .addStatement("$N.diff($N.$N, $N)", valuesField, OLD, valuesField, CHANGED)
+                                 .build();
+            typeSpecBuilder.addMethod(diff);
         }
 
         var constructor = MethodSpec.constructorBuilder()
@@ -243,8 +363,12 @@ public final class ConfigWriter {
                        .addStatement("this.$N = $N", field, parameterSpec);
         }
 
+        var valuesSpec = valuesBuilder.addMethod(valuesConstructor.build())
+                                      .addMethod(valuesDiff.build())
+                                      .build();
         var spec = typeSpecBuilder
-                .addMethod(loadMethod.build())
+                .addType(valuesSpec)
+                .addMethod(loadMethod)
                 .addMethod(constructor.build())
                 .build();
         var file = JavaFile.builder(interfacePackage.getQualifiedName().toString(), spec)
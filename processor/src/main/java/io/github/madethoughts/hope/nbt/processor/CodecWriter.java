@@ -0,0 +1,297 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.nbt.processor;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the codec of one record. The read method switches over the names of the compound's tags and reads
+ * matching values straight from the {@code NbtReader}, everything else is skipped. The write method writes each
+ * component straight to the {@code NbtWriter}.
+ */
+public final class CodecWriter {
+
+    private static final String NBT_PACKAGE = "io.github.madethoughts.hope.nbt";
+    private static final ClassName TYPE = ClassName.get(NBT_PACKAGE, "Type");
+    private static final ClassName NBT_READER = ClassName.get(NBT_PACKAGE + ".deserialization", "NbtReader");
+    private static final ClassName NBT_WRITER = ClassName.get(NBT_PACKAGE + ".serialization", "NbtWriter");
+    private static final ClassName NBT_CODEC = ClassName.get(NBT_PACKAGE + ".codec", "NbtCodec");
+    private static final String READER = "reader";
+    private static final String WRITER = "writer";
+    private static final String VALUE = "value";
+    private static final String INSTANCE = "INSTANCE";
+
+    private final TypeElement record;
+    private final Types types;
+    private final ClassName codecName;
+    private final List<Component> components = new ArrayList<>();
+
+    public CodecWriter(TypeElement record, ProcessingEnvironment env) {
+        this.record = record;
+        this.types = env.getTypeUtils();
+        this.codecName = codecName(record);
+
+        for (var component : record.getRecordComponents()) {
+            components.add(new Component(
+                    component.getSimpleName().toString(),
+                    tagName(component),
+                    component.asType(),
+                    value(component.asType(), true)
+            ));
+        }
+    }
+
+    private ClassName codecName(TypeElement record) {
+        var recordName = ClassName.get(record);
+        return ClassName.get(recordName.packageName(), String.join("_", recordName.simpleNames()) + "Codec");
+    }
+
+    private String tagName(RecordComponentElement component) {
+        for (var mirror : component.getAnnotationMirrors()) {
+            var annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(NbtCodecProcessor.NBT_NAME)) continue;
+            for (var entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    return (String) entry.getValue().getValue();
+                }
+            }
+        }
+        return component.getSimpleName().toString();
+    }
+
+    private Value value(TypeMirror type, boolean allowList) {
+        var kind = switch (type.getKind()) {
+            case BOOLEAN -> ValueKind.BOOLEAN;
+            case BYTE -> ValueKind.BYTE;
+            case SHORT -> ValueKind.SHORT;
+            case INT -> ValueKind.INT;
+            case LONG -> ValueKind.LONG;
+            case FLOAT -> ValueKind.FLOAT;
+            case DOUBLE -> ValueKind.DOUBLE;
+            case ARRAY -> switch (types.erasure(type).toString()) {
+                case "byte[]" -> ValueKind.BYTE_ARRAY;
+                case "int[]" -> ValueKind.INT_ARRAY;
+                case "long[]" -> ValueKind.LONG_ARRAY;
+                default -> null;
+            };
+            case DECLARED -> declaredKind((DeclaredType) type);
+            default -> null;
+        };
+        if (kind == null || (kind == ValueKind.LIST && !allowList)) {
+            throw new UnsupportedOperationException("The type %s is unsupported by nbt codecs".formatted(type));
+        }
+
+        return switch (kind) {
+            case LIST -> {
+                var typeArguments = ((DeclaredType) type).getTypeArguments();
+                if (typeArguments.isEmpty()) throw new UnsupportedOperationException("Raw lists are unsupported");
+                yield new Value(kind, type, value(typeArguments.getFirst(), false));
+            }
+            default -> new Value(kind, type, null);
+        };
+    }
+
+    private ValueKind declaredKind(DeclaredType type) {
+        var element = (TypeElement) type.asElement();
+        var name = element.getQualifiedName().toString();
+        if (name.equals(String.class.getCanonicalName())) return ValueKind.STRING;
+        if (name.equals(List.class.getCanonicalName())) return ValueKind.LIST;
+        if (element.getAnnotationMirrors().stream().anyMatch(mirror -> ((TypeElement) mirror.getAnnotationType()
+                .asElement()).getQualifiedName().contentEquals(NbtCodecProcessor.NBT_RECORD))) {
+            return ValueKind.RECORD;
+        }
+
+        // boxed primitives, only reachable as list elements
+        try {
+            return switch (types.unboxedType(type).getKind()) {
+                case BOOLEAN -> ValueKind.BOOLEAN;
+                case BYTE -> ValueKind.BYTE;
+                case SHORT -> ValueKind.SHORT;
+                case INT -> ValueKind.INT;
+                case LONG -> ValueKind.LONG;
+                case FLOAT -> ValueKind.FLOAT;
+                case DOUBLE -> ValueKind.DOUBLE;
+                default -> null;
+            };
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the expression reading a value whose tag was advanced to, may add statements before
+     */
+    private CodeBlock read(MethodSpec.Builder method, Value value) {
+        return switch (value.kind()) {
+            case BOOLEAN -> CodeBlock.of("$N.readByte() != 0", READER);
+            case RECORD -> {
+                method.addStatement("$N.beginCompound()", READER);
+                yield CodeBlock.of("$T.$N.read($N)", codecName((TypeElement) types.asElement(value.type())),
+                        INSTANCE, READER);
+            }
+            case LIST -> throw new IllegalStateException("Lists are read element by element");
+            default -> CodeBlock.of("$N.$N()", READER, value.kind().readMethod());
+        };
+    }
+
+    /**
+     * @return the statement writing the payload of a value
+     */
+    private CodeBlock write(Value value, CodeBlock expression) {
+        return switch (value.kind()) {
+            case BOOLEAN -> CodeBlock.of("$N.writeByte((byte) ($L ? 1 : 0))", WRITER, expression);
+            case RECORD -> CodeBlock.of("$T.$N.write($N, $L)", codecName((TypeElement) types.asElement(value.type())),
+                    INSTANCE, WRITER, expression);
+            case LIST -> throw new IllegalStateException("Lists are written element by element");
+            default -> CodeBlock.of("$N.$N($L)", WRITER, value.kind().writeMethod(), expression);
+        };
+    }
+
+    private MethodSpec readMethod() {
+        var recordType = TypeName.get(record.asType());
+        var method = MethodSpec.methodBuilder("read")
+                               .addAnnotation(Override.class)
+                               .addModifiers(Modifier.PUBLIC)
+                               .returns(recordType)
+                               .addParameter(NBT_READER, READER);
+
+        for (var component : components) {
+            var defaultValue = switch (component.type().getKind()) {
+                case BOOLEAN -> "false";
+                case BYTE, SHORT, INT, LONG, FLOAT, DOUBLE -> "0";
+                default -> "null";
+            };
+            method.addStatement("$T $N = $L", TypeName.get(component.type()), component.local(), defaultValue);
+        }
+
+        method.addStatement("$T type", TYPE)
+              .beginControlFlow("while ((type = $N.nextTag()) != $T.END)", READER, TYPE)
+              .beginControlFlow("switch ($N.name())", READER);
+        for (var component : components) {
+            var value = component.value();
+            method.beginControlFlow("case $S ->", component.tagName())
+                  .beginControlFlow("if (type == $T.$N)", TYPE, value.kind().tagType());
+            if (value.kind() == ValueKind.LIST) {
+                var element = value.element();
+                method.addStatement("$N.beginList()", READER)
+                      .addStatement("$N = new $T<>()", component.local(), ArrayList.class)
+                      .beginControlFlow("while ($N.nextTag() != $T.END)", READER, TYPE)
+                      .beginControlFlow("if ($N.currentType() == $T.$N)", READER, TYPE, element.kind().tagType());
+                var expression = read(method, element);
+                method.addStatement("$N.add($L)", component.local(), expression)
+                      .nextControlFlow("else")
+                      .addStatement("$N.skipValue()", READER)
+                      .endControlFlow()
+                      .endControlFlow();
+            } else {
+                var expression = read(method, value);
+                method.addStatement("$N = $L", component.local(), expression);
+            }
+            method.addStatement("continue")
+                  .endControlFlow()
+                  .endControlFlow();
+        }
+        method.endControlFlow()
+              .addStatement("$N.skipValue()", READER)
+              .endControlFlow();
+
+        var arguments = components.stream().map(component -> CodeBlock.of("$N", component.local()))
+                                  .collect(CodeBlock.joining(", "));
+        return method.addStatement("return new $T($L)", recordType, arguments).build();
+    }
+
+    private MethodSpec writeMethod() {
+        var method = MethodSpec.methodBuilder("write")
+                               .addAnnotation(Override.class)
+                               .addModifiers(Modifier.PUBLIC)
+                               .addParameter(NBT_WRITER, WRITER)
+                               .addParameter(TypeName.get(record.asType()), VALUE);
+
+        for (var component : components) {
+            var value = component.value();
+            var getter = CodeBlock.of("$N.$N()", VALUE, component.name());
+            var nullable = !component.type().getKind().isPrimitive();
+            if (nullable) method.beginControlFlow("if ($L != null)", getter);
+
+            method.addStatement("$N.writeHeader($T.$N, $S)", WRITER, TYPE, value.kind().tagType(),
+                    component.tagName());
+            if (value.kind() == ValueKind.LIST) {
+                var element = value.element();
+                method.addStatement("$N.writeListHeader($T.$N, $L.size())", WRITER, TYPE, element.kind().tagType(),
+                              getter)
+                      .beginControlFlow("for (var element : $L)", getter)
+                      .addStatement(write(element, CodeBlock.of("element")))
+                      .endControlFlow();
+            } else {
+                method.addStatement(write(value, getter));
+            }
+
+            if (nullable) method.endControlFlow();
+        }
+        return method.addStatement("$N.writeEnd()", WRITER).build();
+    }
+
+    public void generate(Filer filer) throws IOException {
+        var recordType = TypeName.get(record.asType());
+        var instance = FieldSpec.builder(codecName, INSTANCE, Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                                .initializer("new $T()", codecName)
+                                .build();
+
+        var codec = TypeSpec.classBuilder(codecName)
+                            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                            .addSuperinterface(ParameterizedTypeName.get(NBT_CODEC, recordType))
+                            .addOriginatingElement(record)
+                            .addField(instance)
+                            .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build())
+                            .addMethod(readMethod())
+                            .addMethod(writeMethod())
+                            .build();
+
+        JavaFile.builder(codecName.packageName(), codec)
+                .build()
+                .writeTo(filer);
+    }
+
+    private record Component(String name, String tagName, TypeMirror type, Value value) {
+        String local() {
+            return name + "Value";
+        }
+    }
+
+    private record Value(ValueKind kind, TypeMirror type, Value element) {}
+}
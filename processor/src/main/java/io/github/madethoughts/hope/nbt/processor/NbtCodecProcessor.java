@@ -0,0 +1,67 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.nbt.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Generates {@code NbtCodec} implementations for records annotated with {@code @NbtRecord}.
+ * The nbt module isn't a dependency of the processor, so its types are only referenced by name.
+ *
+ * @see CodecWriter
+ */
+@SupportedAnnotationTypes(NbtCodecProcessor.NBT_RECORD)
+@SupportedSourceVersion(SourceVersion.RELEASE_21)
+public class NbtCodecProcessor extends AbstractProcessor {
+
+    static final String NBT_RECORD = "io.github.madethoughts.hope.nbt.codec.NbtRecord";
+    static final String NBT_NAME = "io.github.madethoughts.hope.nbt.codec.NbtName";
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        var annotation = processingEnv.getElementUtils().getTypeElement(NBT_RECORD);
+        if (annotation == null || !annotations.contains(annotation)) return false;
+
+        Messager messager = processingEnv.getMessager();
+        for (var element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.RECORD) {
+                messager.printError("Only records can be annotated with @NbtRecord.", element);
+                continue;
+            }
+
+            try {
+                new CodecWriter((TypeElement) element, processingEnv).generate(processingEnv.getFiler());
+            } catch (UnsupportedOperationException e) {
+                messager.printError(e.getMessage(), element);
+            } catch (IOException e) {
+                messager.printError("Exception during generation of nbt codec: %s".formatted(e), element);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *     Hope - A minecraft server reimplementation
+ *     Copyright (C) 2023 Nick Hensel and contributors
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.madethoughts.hope.nbt.processor;
+
+/**
+ * The kinds of values supported by generated nbt codecs, with the tag type and the reader and writer methods of
+ * their payload.
+ */
+enum ValueKind {
+    BOOLEAN("BYTE", "readByte", "writeByte"),
+    BYTE("BYTE", "readByte", "writeByte"),
+    SHORT("SHORT", "readShort", "writeShort"),
+    INT("INT", "readInt", "writeInt"),
+    LONG("LONG", "readLong", "writeLong"),
+    FLOAT("FLOAT", "readFloat", "writeFloat"),
+    DOUBLE("DOUBLE", "readDouble", "writeDouble"),
+    STRING("STRING", "readString", "writeString"),
+    BYTE_ARRAY("BYTE_ARRAY", "readByteArray", "writeByteArray"),
+    INT_ARRAY("INT_ARRAY", "readIntArray", "writeIntArray"),
+    LONG_ARRAY("LONG_ARRAY", "readLongArray", "writeLongArray"),
+    RECORD("COMPOUND", null, null),
+    LIST("LIST", null, null);
+
+    private final String tagType;
+    private final String readMethod;
+    private final String writeMethod;
+
+    ValueKind(String tagType, String readMethod, String writeMethod) {
+        this.tagType = tagType;
+        this.readMethod = readMethod;
+        this.writeMethod = writeMethod;
+    }
+
+    String tagType() {
+        return tagType;
+    }
+
+    String readMethod() {
+        return readMethod;
+    }
+
+    String writeMethod() {
+        return writeMethod;
+    }
+}